@@ -11,6 +11,7 @@ import com.zingo.app.service.AdminAuditService;
 import com.zingo.app.service.AdminDashboardService;
 import com.zingo.app.service.AdminCafeService;
 import com.zingo.app.service.AdminConfigService;
+import com.zingo.app.service.ProfileSummaryCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.lang.reflect.Array;
@@ -40,6 +41,7 @@ public class AdminController {
   private final AdminConfigService adminConfigService;
   private final AdminDashboardService adminDashboardService;
   private final AdminAuditService adminAuditService;
+  private final ProfileSummaryCache profileSummaryCache;
   private final ConfigurableEnvironment environment;
   private final ObjectMapper objectMapper;
   private static final List<String> CONFIG_ROOTS = List.of("server", "spring", "app", "scrape", "logging");
@@ -49,12 +51,14 @@ public class AdminController {
 
   public AdminController(AdminAccessService adminAccessService, AdminCafeService adminCafeService,
       AdminConfigService adminConfigService, AdminDashboardService adminDashboardService,
-      AdminAuditService adminAuditService, ConfigurableEnvironment environment, ObjectMapper objectMapper) {
+      AdminAuditService adminAuditService, ProfileSummaryCache profileSummaryCache,
+      ConfigurableEnvironment environment, ObjectMapper objectMapper) {
     this.adminAccessService = adminAccessService;
     this.adminCafeService = adminCafeService;
     this.adminConfigService = adminConfigService;
     this.adminDashboardService = adminDashboardService;
     this.adminAuditService = adminAuditService;
+    this.profileSummaryCache = profileSummaryCache;
     this.environment = environment;
     this.objectMapper = objectMapper;
   }
@@ -70,6 +74,12 @@ public class AdminController {
     return adminDashboardService.getDashboard();
   }
 
+  @GetMapping("/cache/profiles")
+  public ProfileSummaryCache.CacheStats profileCacheStats() {
+    adminAccessService.assertCurrentUserIsOwner();
+    return profileSummaryCache.stats();
+  }
+
   @GetMapping("/config")
   public AdminConfigResponse config() {
     adminAccessService.assertCurrentUserIsOwner();
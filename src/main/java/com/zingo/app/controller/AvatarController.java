@@ -0,0 +1,83 @@
+package com.zingo.app.controller;
+
+import com.zingo.app.exception.NotFoundException;
+import com.zingo.app.service.AvatarService;
+import com.zingo.app.service.AvatarStore.StoredAvatar;
+import com.zingo.app.service.AvatarUrls;
+import java.time.Duration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/avatars")
+public class AvatarController {
+  private static final CacheControl IMMUTABLE = CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable();
+  private static final CacheControl PENDING_THUMBNAIL = CacheControl.maxAge(Duration.ofMinutes(1)).cachePublic();
+
+  private final AvatarService avatarService;
+  private final AvatarUrls avatarUrls;
+
+  public AvatarController(AvatarService avatarService, AvatarUrls avatarUrls) {
+    this.avatarService = avatarService;
+    this.avatarUrls = avatarUrls;
+  }
+
+  @GetMapping("/{hash}")
+  public ResponseEntity<byte[]> avatar(@PathVariable String hash,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (!avatarUrls.isValidHash(hash)) {
+      throw new NotFoundException("Avatar not found");
+    }
+    String etag = "\"" + hash + "\"";
+    if (matches(ifNoneMatch, etag)) {
+      return notModified(etag);
+    }
+    StoredAvatar avatar = avatarService.load(hash).orElseThrow(() -> new NotFoundException("Avatar not found"));
+    return immutable(avatar, etag);
+  }
+
+  @GetMapping("/{hash}/{size}")
+  public ResponseEntity<byte[]> thumbnail(@PathVariable String hash, @PathVariable int size,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    if (!avatarUrls.isValidHash(hash) || !AvatarUrls.THUMBNAIL_SIZES.contains(size)) {
+      throw new NotFoundException("Avatar not found");
+    }
+    String etag = "\"" + hash + "-" + size + "\"";
+    if (matches(ifNoneMatch, etag)) {
+      return notModified(etag);
+    }
+    StoredAvatar thumbnail = avatarService.loadThumbnail(hash, size).orElse(null);
+    if (thumbnail != null) {
+      return immutable(thumbnail, etag);
+    }
+    StoredAvatar original = avatarService.load(hash).orElseThrow(() -> new NotFoundException("Avatar not found"));
+    return ResponseEntity.ok()
+        .cacheControl(PENDING_THUMBNAIL)
+        .contentType(MediaType.parseMediaType(original.contentType()))
+        .body(original.content());
+  }
+
+  private boolean matches(String ifNoneMatch, String etag) {
+    return ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"));
+  }
+
+  private ResponseEntity<byte[]> notModified(String etag) {
+    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(IMMUTABLE).build();
+  }
+
+  private ResponseEntity<byte[]> immutable(StoredAvatar avatar, String etag) {
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(IMMUTABLE)
+        .contentType(MediaType.parseMediaType(avatar.contentType()))
+        .body(avatar.content());
+  }
+}
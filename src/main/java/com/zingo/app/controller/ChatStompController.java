@@ -0,0 +1,66 @@
+package com.zingo.app.controller;
+
+import com.zingo.app.dto.ChatDtos.ChatAck;
+import com.zingo.app.dto.ChatDtos.ChatSendFrame;
+import com.zingo.app.dto.ChatDtos.MessageDto;
+import com.zingo.app.exception.ApiException;
+import com.zingo.app.service.ConversationService;
+import java.security.Principal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.stereotype.Controller;
+
+@Controller
+public class ChatStompController {
+  private static final Logger log = LoggerFactory.getLogger(ChatStompController.class);
+  private static final String ACCEPTED = "ACCEPTED";
+  private static final String REJECTED = "REJECTED";
+
+  private final ConversationService conversationService;
+
+  public ChatStompController(ConversationService conversationService) {
+    this.conversationService = conversationService;
+  }
+
+  @MessageMapping("/chat.send")
+  @SendToUser(destinations = "/queue/acks", broadcast = false)
+  public ChatAck send(@Payload ChatSendFrame frame, Principal principal) {
+    String clientMessageId = frame.clientMessageId();
+    Long conversationId = frame.conversationId();
+    Long userId = userIdOf(principal);
+    if (userId == null || conversationId == null) {
+      return rejected(frame, "Invalid chat frame");
+    }
+    try {
+      MessageDto message = conversationService.sendMessage(userId, conversationId, frame.text(), clientMessageId);
+      return accepted(clientMessageId, message);
+    } catch (ApiException exception) {
+      return rejected(frame, exception.getMessage());
+    } catch (RuntimeException exception) {
+      log.warn("Failed to send chat message over STOMP for user {}", userId, exception);
+      return rejected(frame, "Message could not be stored");
+    }
+  }
+
+  private Long userIdOf(Principal principal) {
+    if (principal == null) {
+      return null;
+    }
+    try {
+      return Long.valueOf(principal.getName());
+    } catch (NumberFormatException exception) {
+      return null;
+    }
+  }
+
+  private ChatAck accepted(String clientMessageId, MessageDto message) {
+    return new ChatAck(clientMessageId, message.conversationId(), message.id(), message.createdAt(), ACCEPTED, null);
+  }
+
+  private ChatAck rejected(ChatSendFrame frame, String error) {
+    return new ChatAck(frame.clientMessageId(), frame.conversationId(), null, null, REJECTED, error);
+  }
+}
@@ -1,9 +1,13 @@
 package com.zingo.app.controller;
 
+import com.zingo.app.dto.ChatDtos.ChatSyncRequest;
+import com.zingo.app.dto.ChatDtos.ChatSyncResponse;
 import com.zingo.app.dto.ChatDtos.ConversationDto;
 import com.zingo.app.dto.ChatDtos.IcebreakerResponse;
+import com.zingo.app.dto.ChatDtos.MarkReadRequest;
 import com.zingo.app.dto.ChatDtos.MessageDto;
 import com.zingo.app.dto.ChatDtos.SendMessageRequest;
+import com.zingo.app.exception.BadRequestException;
 import com.zingo.app.service.ConversationService;
 import com.zingo.app.service.IcebreakerService;
 import jakarta.validation.Valid;
@@ -28,20 +32,43 @@ public class ConversationController {
   }
 
   @GetMapping("/conversations")
-  public List<ConversationDto> listConversations() {
-    return conversationService.listForCurrentUser();
+  public List<ConversationDto> listConversations(@RequestParam(defaultValue = "0") int page,
+      @RequestParam(defaultValue = "50") int size) {
+    return conversationService.listForCurrentUser(page, size);
   }
 
   @GetMapping("/conversations/{id}/messages")
   public List<MessageDto> listMessages(@PathVariable Long id,
-      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) Long before,
+      @RequestParam(required = false) Long after,
+      @RequestParam(required = false) Long afterId,
+      @RequestParam(required = false) Integer page,
       @RequestParam(defaultValue = "50") int size) {
-    return conversationService.listMessages(id, page, size);
+    if (afterId != null) {
+      if (before != null || after != null) {
+        throw new BadRequestException("Use afterId on its own");
+      }
+      return conversationService.listMessagesSince(id, afterId, size);
+    }
+    if (page != null && page > 0 && before == null && after == null) {
+      return conversationService.listMessagesPage(id, page, size);
+    }
+    return conversationService.listMessages(id, before, after, size);
+  }
+
+  @PostMapping("/conversations/sync")
+  public ChatSyncResponse sync(@Valid @RequestBody ChatSyncRequest request) {
+    return conversationService.sync(request.lastSeenMessageIds(), request.limitPerConversation());
   }
 
   @PostMapping("/conversations/{id}/messages")
   public MessageDto sendMessage(@PathVariable Long id, @Valid @RequestBody SendMessageRequest request) {
-    return conversationService.sendMessage(id, request.text());
+    return conversationService.sendMessage(id, request.text(), request.clientMessageId());
+  }
+
+  @PostMapping("/conversations/{id}/read")
+  public void markRead(@PathVariable Long id, @RequestBody(required = false) MarkReadRequest request) {
+    conversationService.markRead(id, request != null ? request.messageId() : null);
   }
 
   @PostMapping("/conversations/{id}/leave")
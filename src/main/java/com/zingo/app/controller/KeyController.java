@@ -0,0 +1,69 @@
+package com.zingo.app.controller;
+
+import com.zingo.app.dto.KeyDtos.PublicKeyDto;
+import com.zingo.app.dto.KeyDtos.PublicKeysResponse;
+import com.zingo.app.exception.NotFoundException;
+import com.zingo.app.service.E2eeKeyService;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/keys")
+public class KeyController {
+  private static final CacheControl REVALIDATE = CacheControl.noCache().cachePrivate();
+
+  private final E2eeKeyService keyService;
+
+  public KeyController(E2eeKeyService keyService) {
+    this.keyService = keyService;
+  }
+
+  @GetMapping("/{userId}")
+  public ResponseEntity<PublicKeyDto> key(@PathVariable Long userId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    String fingerprint = keyService.currentFingerprint(userId);
+    if (fingerprint != null && matches(ifNoneMatch, etag(fingerprint))) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag(fingerprint)).cacheControl(REVALIDATE).build();
+    }
+    PublicKeyDto key = keyService.find(userId).orElseThrow(() -> new NotFoundException("Key not found"));
+    return ResponseEntity.ok().eTag(etag(key.fingerprint())).cacheControl(REVALIDATE).body(key);
+  }
+
+  @GetMapping
+  public ResponseEntity<PublicKeysResponse> keys(@RequestParam List<Long> userIds,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    Map<Long, String> fingerprints = keyService.currentFingerprints(userIds);
+    String etag = etag(E2eeKeyService.batchTag(fingerprints));
+    if (matches(ifNoneMatch, etag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(REVALIDATE).build();
+    }
+    List<PublicKeyDto> keys = keyService.findAll(userIds);
+    Map<Long, String> loaded = new TreeMap<>();
+    for (PublicKeyDto key : keys) {
+      loaded.put(key.userId(), key.fingerprint());
+    }
+    return ResponseEntity.ok()
+        .eTag(etag(E2eeKeyService.batchTag(loaded)))
+        .cacheControl(REVALIDATE)
+        .body(new PublicKeysResponse(keys));
+  }
+
+  private static String etag(String value) {
+    return "\"" + value + "\"";
+  }
+
+  private static boolean matches(String ifNoneMatch, String etag) {
+    return ifNoneMatch != null && ifNoneMatch.contains(etag);
+  }
+}
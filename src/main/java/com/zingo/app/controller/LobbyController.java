@@ -2,6 +2,7 @@ package com.zingo.app.controller;
 
 import com.zingo.app.dto.LobbyDtos.LobbyJoinRequest;
 import com.zingo.app.dto.LobbyDtos.LobbyPresenceUpdate;
+import com.zingo.app.dto.LobbyDtos.LobbyRosterSnapshot;
 import com.zingo.app.dto.LobbyDtos.LobbyUsersResponse;
 import com.zingo.app.dto.LobbyDtos.ActiveLobbyDto;
 import com.zingo.app.service.LobbyService;
@@ -41,9 +42,15 @@ public class LobbyController {
 
   @GetMapping("/{showtimeId}/users")
   public LobbyUsersResponse users(@PathVariable Long showtimeId,
-      @RequestParam(defaultValue = "0") int page,
+      @RequestParam(required = false) String cursor,
       @RequestParam(defaultValue = "24") int size) {
-    return lobbyService.listUsers(showtimeId, page, size);
+    return lobbyService.listUsers(showtimeId, cursor, size);
+  }
+
+  @GetMapping("/{showtimeId}/roster")
+  public LobbyRosterSnapshot roster(@PathVariable Long showtimeId,
+      @RequestParam(required = false) List<Long> userIds) {
+    return lobbyService.roster(showtimeId, userIds);
   }
 
   @GetMapping("/active")
@@ -1,13 +1,15 @@
 package com.zingo.app.controller;
 
 import com.zingo.app.dto.NotificationDtos.NotificationDto;
+import com.zingo.app.dto.NotificationDtos.NotificationPage;
+import com.zingo.app.dto.NotificationDtos.UnreadCountResponse;
 import com.zingo.app.security.SecurityUtil;
 import com.zingo.app.service.NotificationService;
-import java.util.List;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -20,9 +22,16 @@ public class NotificationController {
   }
 
   @GetMapping
-  public List<NotificationDto> list() {
+  public NotificationPage list(@RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "30") int size) {
     Long userId = SecurityUtil.currentUserId();
-    return notificationService.listForUser(userId);
+    return notificationService.listForUser(userId, cursor, size);
+  }
+
+  @GetMapping("/unread-count")
+  public UnreadCountResponse unreadCount() {
+    Long userId = SecurityUtil.currentUserId();
+    return new UnreadCountResponse(notificationService.unreadCount(userId));
   }
 
   @PostMapping("/{id}/read")
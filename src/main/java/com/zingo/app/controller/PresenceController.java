@@ -0,0 +1,31 @@
+package com.zingo.app.controller;
+
+import com.zingo.app.dto.PresenceDtos.PresenceResponse;
+import com.zingo.app.exception.BadRequestException;
+import com.zingo.app.security.SecurityUtil;
+import com.zingo.app.service.PresenceService;
+import java.util.List;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/presence")
+public class PresenceController {
+  private static final int MAX_USERS = 200;
+
+  private final PresenceService presenceService;
+
+  public PresenceController(PresenceService presenceService) {
+    this.presenceService = presenceService;
+  }
+
+  @GetMapping
+  public PresenceResponse online(@RequestParam List<Long> userIds) {
+    if (userIds.size() > MAX_USERS) {
+      throw new BadRequestException("Too many users requested");
+    }
+    return new PresenceResponse(presenceService.onlineAmong(SecurityUtil.currentUserId(), userIds));
+  }
+}
@@ -1,6 +1,8 @@
 package com.zingo.app.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -19,9 +21,11 @@ public class ChatDtos {
       Long otherUserId,
       String otherUserName,
       String otherUserAvatarUrl,
-      String otherUserE2eePublicKey,
+      String otherUserE2eeKeyFingerprint,
       String lastMessageText,
-      Instant lastMessageAt) {}
+      Instant lastMessageAt,
+      int unreadCount,
+      Long lastReadMessageId) {}
 
   public record MessageDto(
       Long id,
@@ -29,9 +33,31 @@ public class ChatDtos {
       Long senderId,
       String senderName,
       String text,
-      Instant createdAt) {}
+      Instant createdAt,
+      String clientMessageId) {}
 
-  public record SendMessageRequest(@NotBlank String text) {}
+  public record SendMessageRequest(@NotBlank String text, @Size(max = 64) String clientMessageId) {}
+
+  public record ChatSendFrame(Long conversationId, String clientMessageId, String text) {}
+
+  public record ChatAck(
+      String clientMessageId,
+      Long conversationId,
+      Long messageId,
+      Instant createdAt,
+      String status,
+      String error) {}
+
+  public record ChatSyncRequest(@NotNull Map<Long, Long> lastSeenMessageIds, Integer limitPerConversation) {}
+
+  public record ConversationDelta(Long conversationId, List<MessageDto> messages, boolean hasMore) {}
+
+  public record ChatSyncResponse(List<ConversationDelta> conversations) {}
+
+  public record MarkReadRequest(Long messageId) {}
+
+  public record ReadReceiptEvent(String kind, Long conversationId, Long userId, Long lastReadMessageId,
+      Instant readAt) {}
 
   public record IcebreakerResponse(List<String> suggestions) {}
 }
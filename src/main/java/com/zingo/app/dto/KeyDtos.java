@@ -0,0 +1,9 @@
+package com.zingo.app.dto;
+
+import java.util.List;
+
+public class KeyDtos {
+  public record PublicKeyDto(Long userId, String publicKey, String fingerprint) {}
+
+  public record PublicKeysResponse(List<PublicKeyDto> keys) {}
+}
@@ -18,7 +18,8 @@ public class LobbyDtos {
       Long showtimeId,
       long total,
       List<LobbyUserDto> users,
-      String eventType) {}
+      String eventType,
+      String nextCursor) {}
 
   public record ActiveLobbyDto(
       Long showtimeId,
@@ -27,5 +28,18 @@ public class LobbyDtos {
       Instant startsAt,
       long liveCount) {}
 
-  public record LobbyPresenceUpdate(Long showtimeId, long count, Instant updatedAt) {}
+  public record LobbyPresenceUpdate(Long showtimeId, long count, Instant updatedAt, long sequence) {}
+
+  public record LobbyRosterDelta(
+      Long showtimeId,
+      String type,
+      long version,
+      long previousVersion,
+      Long userId) {}
+
+  public record LobbyRosterSnapshot(
+      Long showtimeId,
+      long version,
+      List<LobbyUserDto> users,
+      String eventType) {}
 }
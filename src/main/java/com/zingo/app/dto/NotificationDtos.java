@@ -2,6 +2,7 @@ package com.zingo.app.dto;
 
 import com.zingo.app.entity.NotificationType;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
 
 public class NotificationDtos {
@@ -11,4 +12,8 @@ public class NotificationDtos {
       Map<String, Object> payload,
       Instant readAt,
       Instant createdAt) {}
+
+  public record NotificationPage(List<NotificationDto> notifications, String nextCursor) {}
+
+  public record UnreadCountResponse(long unreadCount) {}
 }
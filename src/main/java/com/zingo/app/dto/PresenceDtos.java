@@ -0,0 +1,7 @@
+package com.zingo.app.dto;
+
+import java.util.List;
+
+public class PresenceDtos {
+  public record PresenceResponse(List<Long> onlineUserIds) {}
+}
@@ -15,7 +15,8 @@ import java.time.Instant;
     name = "blocks",
     indexes = {
       @Index(name = "idx_block_blocker", columnList = "blockerId"),
-      @Index(name = "idx_block_blocked", columnList = "blockedId")
+      @Index(name = "idx_block_blocked", columnList = "blockedId"),
+      @Index(name = "idx_block_pair", columnList = "blockerId, blockedId")
     }
 )
 public class Block {
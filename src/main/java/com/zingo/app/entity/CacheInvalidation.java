@@ -0,0 +1,70 @@
+package com.zingo.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.Instant;
+
+@Entity
+@Table(
+    name = "cache_invalidations",
+    indexes = {
+      @Index(name = "idx_cache_invalidation_created", columnList = "createdAt")
+    }
+)
+public class CacheInvalidation {
+  public static final String SCOPE_MEMBERSHIP = "MEMBERSHIP";
+  public static final String SCOPE_BLOCKS = "BLOCKS";
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false, length = 20)
+  private String scope;
+
+  private Long targetId;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @PrePersist
+  public void onCreate() {
+    if (createdAt == null) {
+      createdAt = Instant.now();
+    }
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getScope() {
+    return scope;
+  }
+
+  public void setScope(String scope) {
+    this.scope = scope;
+  }
+
+  public Long getTargetId() {
+    return targetId;
+  }
+
+  public void setTargetId(Long targetId) {
+    this.targetId = targetId;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
@@ -7,13 +7,17 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "conversations")
+@Table(
+    name = "conversations",
+    uniqueConstraints = @UniqueConstraint(name = "uniq_conversation_pair_key", columnNames = "pair_key")
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -28,6 +32,9 @@ public class Conversation {
   @Column(nullable = false)
   private Instant createdAt;
 
+  @Column(name = "pair_key", length = 41)
+  private String pairKey;
+
   @PrePersist
   public void onCreate() {
     if (createdAt == null) {
@@ -58,4 +65,12 @@ public class Conversation {
   public void setCreatedAt(Instant createdAt) {
     this.createdAt = createdAt;
   }
+
+  public String getPairKey() {
+    return pairKey;
+  }
+
+  public void setPairKey(String pairKey) {
+    this.pairKey = pairKey;
+  }
 }
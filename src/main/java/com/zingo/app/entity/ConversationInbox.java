@@ -0,0 +1,179 @@
+package com.zingo.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.time.Instant;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(
+    name = "conversation_inbox",
+    uniqueConstraints = @UniqueConstraint(name = "uniq_inbox_user_conversation", columnNames = {"userId", "conversationId"}),
+    indexes = {
+      @Index(name = "idx_inbox_user_activity", columnList = "userId, lastActivityAt, conversationId"),
+      @Index(name = "idx_inbox_conversation", columnList = "conversationId")
+    }
+)
+@Getter
+@Setter
+@NoArgsConstructor
+public class ConversationInbox {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Column(nullable = false)
+  private Long userId;
+
+  @Column(nullable = false)
+  private Long conversationId;
+
+  @Column(nullable = false)
+  private Long showtimeId;
+
+  @Column(length = 200)
+  private String eventTitle;
+
+  @Column(length = 500)
+  private String eventPosterUrl;
+
+  @Column(length = 160)
+  private String venueName;
+
+  private Instant startsAt;
+
+  private Long lastMessageId;
+
+  private Long lastMessageSenderId;
+
+  @Column(length = 500)
+  private String lastMessagePreview;
+
+  private Instant lastMessageAt;
+
+  @Column(nullable = false)
+  private int unreadCount;
+
+  @Column(nullable = false)
+  private Instant lastActivityAt;
+
+  public Long getId() {
+    return id;
+  }
+
+  public void setId(Long id) {
+    this.id = id;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public void setUserId(Long userId) {
+    this.userId = userId;
+  }
+
+  public Long getConversationId() {
+    return conversationId;
+  }
+
+  public void setConversationId(Long conversationId) {
+    this.conversationId = conversationId;
+  }
+
+  public Long getShowtimeId() {
+    return showtimeId;
+  }
+
+  public void setShowtimeId(Long showtimeId) {
+    this.showtimeId = showtimeId;
+  }
+
+  public String getEventTitle() {
+    return eventTitle;
+  }
+
+  public void setEventTitle(String eventTitle) {
+    this.eventTitle = eventTitle;
+  }
+
+  public String getEventPosterUrl() {
+    return eventPosterUrl;
+  }
+
+  public void setEventPosterUrl(String eventPosterUrl) {
+    this.eventPosterUrl = eventPosterUrl;
+  }
+
+  public String getVenueName() {
+    return venueName;
+  }
+
+  public void setVenueName(String venueName) {
+    this.venueName = venueName;
+  }
+
+  public Instant getStartsAt() {
+    return startsAt;
+  }
+
+  public void setStartsAt(Instant startsAt) {
+    this.startsAt = startsAt;
+  }
+
+  public Long getLastMessageId() {
+    return lastMessageId;
+  }
+
+  public void setLastMessageId(Long lastMessageId) {
+    this.lastMessageId = lastMessageId;
+  }
+
+  public Long getLastMessageSenderId() {
+    return lastMessageSenderId;
+  }
+
+  public void setLastMessageSenderId(Long lastMessageSenderId) {
+    this.lastMessageSenderId = lastMessageSenderId;
+  }
+
+  public String getLastMessagePreview() {
+    return lastMessagePreview;
+  }
+
+  public void setLastMessagePreview(String lastMessagePreview) {
+    this.lastMessagePreview = lastMessagePreview;
+  }
+
+  public Instant getLastMessageAt() {
+    return lastMessageAt;
+  }
+
+  public void setLastMessageAt(Instant lastMessageAt) {
+    this.lastMessageAt = lastMessageAt;
+  }
+
+  public int getUnreadCount() {
+    return unreadCount;
+  }
+
+  public void setUnreadCount(int unreadCount) {
+    this.unreadCount = unreadCount;
+  }
+
+  public Instant getLastActivityAt() {
+    return lastActivityAt;
+  }
+
+  public void setLastActivityAt(Instant lastActivityAt) {
+    this.lastActivityAt = lastActivityAt;
+  }
+}
@@ -34,6 +34,8 @@ public class ConversationMember {
   @Column(nullable = false)
   private Long userId;
 
+  private Long lastReadMessageId;
+
   public Long getId() {
     return id;
   }
@@ -57,4 +59,12 @@ public class ConversationMember {
   public void setUserId(Long userId) {
     this.userId = userId;
   }
+
+  public Long getLastReadMessageId() {
+    return lastReadMessageId;
+  }
+
+  public void setLastReadMessageId(Long lastReadMessageId) {
+    this.lastReadMessageId = lastReadMessageId;
+  }
 }
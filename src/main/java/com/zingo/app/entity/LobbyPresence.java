@@ -20,7 +20,8 @@ import lombok.Setter;
     uniqueConstraints = @UniqueConstraint(name = "uniq_lobby_showtime_user", columnNames = {"showtime_id", "user_id"}),
     indexes = {
       @Index(name = "idx_lobby_showtime", columnList = "showtime_id"),
-      @Index(name = "idx_lobby_user", columnList = "user_id")
+      @Index(name = "idx_lobby_user", columnList = "user_id"),
+      @Index(name = "idx_lobby_showtime_seen", columnList = "showtime_id, last_seen_at, user_id")
     }
 )
 @Getter
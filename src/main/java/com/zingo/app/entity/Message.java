@@ -8,6 +8,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.Index;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.time.Instant;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -17,8 +18,12 @@ import lombok.Setter;
 @Table(
     name = "messages",
     indexes = {
-      @Index(name = "idx_message_conversation", columnList = "conversationId")
-    }
+      @Index(name = "idx_message_conversation", columnList = "conversationId"),
+      @Index(name = "idx_message_conversation_created", columnList = "conversationId, createdAt, id")
+    },
+    uniqueConstraints = @UniqueConstraint(
+        name = "uniq_message_conversation_sender_client",
+        columnNames = {"conversationId", "senderId", "clientMessageId"})
 )
 @Getter
 @Setter
@@ -40,6 +45,15 @@ public class Message {
   @Column(nullable = false)
   private Instant createdAt;
 
+  @Column(length = 64)
+  private String clientMessageId;
+
+  @Column(nullable = false)
+  private byte payloadFormat;
+
+  @Column(columnDefinition = "varbinary(49152)")
+  private byte[] ciphertext;
+
   @PrePersist
   public void onCreate() {
     if (createdAt == null) {
@@ -86,4 +100,28 @@ public class Message {
   public void setCreatedAt(Instant createdAt) {
     this.createdAt = createdAt;
   }
+
+  public String getClientMessageId() {
+    return clientMessageId;
+  }
+
+  public void setClientMessageId(String clientMessageId) {
+    this.clientMessageId = clientMessageId;
+  }
+
+  public byte getPayloadFormat() {
+    return payloadFormat;
+  }
+
+  public void setPayloadFormat(byte payloadFormat) {
+    this.payloadFormat = payloadFormat;
+  }
+
+  public byte[] getCiphertext() {
+    return ciphertext;
+  }
+
+  public void setCiphertext(byte[] ciphertext) {
+    this.ciphertext = ciphertext;
+  }
 }
@@ -19,7 +19,8 @@ import org.hibernate.type.SqlTypes;
 @Table(
     name = "notifications",
     indexes = {
-      @Index(name = "idx_notification_user", columnList = "userId")
+      @Index(name = "idx_notification_user_created", columnList = "userId, createdAt, id"),
+      @Index(name = "idx_notification_user_read", columnList = "userId, readAt")
     }
 )
 public class Notification {
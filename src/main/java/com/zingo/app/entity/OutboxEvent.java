@@ -0,0 +1,129 @@
+package com.zingo.app.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.Table;
+import java.time.Instant;
+import java.util.Map;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+@Entity
+@Table(
+    name = "outbox_events",
+    indexes = {
+      @Index(name = "idx_outbox_due", columnList = "status, availableAt, id")
+    }
+)
+public class OutboxEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.VARCHAR)
+  @Column(nullable = false, length = 40, columnDefinition = "varchar(40)")
+  private OutboxEventType eventType;
+
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(nullable = false, columnDefinition = "json")
+  private Map<String, Object> payloadJson;
+
+  @Enumerated(EnumType.STRING)
+  @JdbcTypeCode(SqlTypes.VARCHAR)
+  @Column(nullable = false, length = 20, columnDefinition = "varchar(20)")
+  private OutboxStatus status;
+
+  @Column(nullable = false)
+  private int attempts;
+
+  @Column(nullable = false)
+  private Instant availableAt;
+
+  @Column(length = 500)
+  private String lastError;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @PrePersist
+  public void onCreate() {
+    Instant now = Instant.now();
+    if (createdAt == null) {
+      createdAt = now;
+    }
+    if (availableAt == null) {
+      availableAt = now;
+    }
+    if (status == null) {
+      status = OutboxStatus.PENDING;
+    }
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public OutboxEventType getEventType() {
+    return eventType;
+  }
+
+  public void setEventType(OutboxEventType eventType) {
+    this.eventType = eventType;
+  }
+
+  public Map<String, Object> getPayloadJson() {
+    return payloadJson;
+  }
+
+  public void setPayloadJson(Map<String, Object> payloadJson) {
+    this.payloadJson = payloadJson;
+  }
+
+  public OutboxStatus getStatus() {
+    return status;
+  }
+
+  public void setStatus(OutboxStatus status) {
+    this.status = status;
+  }
+
+  public int getAttempts() {
+    return attempts;
+  }
+
+  public void setAttempts(int attempts) {
+    this.attempts = attempts;
+  }
+
+  public Instant getAvailableAt() {
+    return availableAt;
+  }
+
+  public void setAvailableAt(Instant availableAt) {
+    this.availableAt = availableAt;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public void setLastError(String lastError) {
+    this.lastError = lastError;
+  }
+
+  public Instant getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Instant createdAt) {
+    this.createdAt = createdAt;
+  }
+}
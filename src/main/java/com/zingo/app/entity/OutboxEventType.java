@@ -0,0 +1,6 @@
+package com.zingo.app.entity;
+
+public enum OutboxEventType {
+  PUSH,
+  CHAT_FANOUT
+}
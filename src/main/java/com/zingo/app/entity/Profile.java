@@ -27,6 +27,9 @@ public class Profile {
   @Column(columnDefinition = "mediumtext")
   private String e2eePublicKey;
 
+  @Column(length = 64)
+  private String e2eeKeyFingerprint;
+
   @Column(columnDefinition = "mediumtext")
   @JsonIgnore
   private String e2eeEncryptedPrivateKey;
@@ -82,6 +85,14 @@ public class Profile {
     this.e2eePublicKey = e2eePublicKey;
   }
 
+  public String getE2eeKeyFingerprint() {
+    return e2eeKeyFingerprint;
+  }
+
+  public void setE2eeKeyFingerprint(String e2eeKeyFingerprint) {
+    this.e2eeKeyFingerprint = e2eeKeyFingerprint;
+  }
+
   public String getE2eeEncryptedPrivateKey() {
     return e2eeEncryptedPrivateKey;
   }
@@ -0,0 +1,44 @@
+package com.zingo.app.job;
+
+import com.zingo.app.repository.ConversationRepository;
+import com.zingo.app.repository.ConversationRepository.PairDuplicate;
+import com.zingo.app.service.ConversationService;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+// One-off job: run with --spring.profiles.active=merge-duplicate-pairs (plus the usual profile) to fold
+// duplicate one-to-one conversations into their oldest copy, then exit. Serving nodes never load it.
+@Component
+@Profile(DuplicatePairMergeJob.PROFILE)
+public class DuplicatePairMergeJob implements CommandLineRunner {
+  public static final String PROFILE = "merge-duplicate-pairs";
+
+  private static final Logger log = LoggerFactory.getLogger(DuplicatePairMergeJob.class);
+
+  private final ConversationRepository conversationRepository;
+  private final ConversationService conversationService;
+  private final ConfigurableApplicationContext context;
+
+  public DuplicatePairMergeJob(ConversationRepository conversationRepository,
+      ConversationService conversationService, ConfigurableApplicationContext context) {
+    this.conversationRepository = conversationRepository;
+    this.conversationService = conversationService;
+    this.context = context;
+  }
+
+  @Override
+  public void run(String... args) {
+    List<PairDuplicate> duplicates = conversationRepository.findPairDuplicates();
+    for (PairDuplicate duplicate : duplicates) {
+      conversationService.mergeDuplicatePair(duplicate.getDuplicateId(), duplicate.getPrimaryId());
+    }
+    log.info("Merged {} duplicate one-to-one conversations", duplicates.size());
+    System.exit(SpringApplication.exit(context));
+  }
+}
@@ -1,11 +1,21 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.Block;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface BlockRepository extends JpaRepository<Block, Long> {
   boolean existsByBlockerIdAndBlockedId(Long blockerId, Long blockedId);
   List<Block> findByBlockerId(Long blockerId);
   List<Block> findByBlockedId(Long blockedId);
+
+  @Query("select count(b) > 0 from Block b where b.blockerId in :userIds and b.blockedId in :userIds")
+  boolean existsBetweenAny(@Param("userIds") Collection<Long> userIds);
+
+  @Query("select b from Block b where (b.blockerId = :userId and b.blockedId in :otherIds) "
+      + "or (b.blockedId = :userId and b.blockerId in :otherIds)")
+  List<Block> findBetweenUserAndAny(@Param("userId") Long userId, @Param("otherIds") Collection<Long> otherIds);
 }
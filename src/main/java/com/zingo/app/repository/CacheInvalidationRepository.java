@@ -0,0 +1,17 @@
+package com.zingo.app.repository;
+
+import com.zingo.app.entity.CacheInvalidation;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CacheInvalidationRepository extends JpaRepository<CacheInvalidation, Long> {
+  List<CacheInvalidation> findByCreatedAtGreaterThanEqualOrderByIdAsc(Instant since);
+
+  @Modifying
+  @Query("delete from CacheInvalidation c where c.createdAt < :cutoff")
+  int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,57 @@
+package com.zingo.app.repository;
+
+import com.zingo.app.entity.ConversationInbox;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface ConversationInboxRepository extends JpaRepository<ConversationInbox, Long> {
+  List<ConversationInbox> findByUserIdOrderByLastActivityAtDescConversationIdDesc(Long userId, Pageable pageable);
+  Optional<ConversationInbox> findFirstByConversationId(Long conversationId);
+  List<ConversationInbox> findByUserIdAndConversationIdIn(Long userId, Collection<Long> conversationIds);
+  Optional<ConversationInbox> findByUserIdAndConversationId(Long userId, Long conversationId);
+  boolean existsByUserIdAndConversationId(Long userId, Long conversationId);
+  void deleteByConversationId(Long conversationId);
+  void deleteByUserIdAndConversationId(Long userId, Long conversationId);
+
+  @Modifying
+  @Query("update ConversationInbox i set i.lastMessageId = :messageId, i.lastMessageSenderId = :senderId, "
+      + "i.lastMessagePreview = :preview, i.lastMessageAt = :sentAt, i.lastActivityAt = :sentAt, "
+      + "i.unreadCount = case when i.userId = :senderId then 0 else i.unreadCount + 1 end "
+      + "where i.conversationId = :conversationId")
+  int recordMessage(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId,
+      @Param("senderId") Long senderId, @Param("preview") String preview, @Param("sentAt") Instant sentAt);
+
+  @Modifying
+  @Query("update ConversationInbox i set i.lastMessageId = :messageId, i.lastMessageSenderId = :senderId, "
+      + "i.lastMessagePreview = :preview, i.lastMessageAt = :sentAt, "
+      + "i.lastActivityAt = coalesce(:sentAt, i.lastActivityAt) "
+      + "where i.conversationId = :conversationId")
+  int replaceLastMessage(@Param("conversationId") Long conversationId, @Param("messageId") Long messageId,
+      @Param("senderId") Long senderId, @Param("preview") String preview, @Param("sentAt") Instant sentAt);
+
+  @Modifying
+  @Query("update ConversationInbox i set i.showtimeId = :showtimeId, i.eventTitle = :eventTitle, "
+      + "i.eventPosterUrl = :eventPosterUrl, i.venueName = :venueName, i.startsAt = :startsAt "
+      + "where i.conversationId = :conversationId")
+  int updateShowtimeSnapshot(@Param("conversationId") Long conversationId, @Param("showtimeId") Long showtimeId,
+      @Param("eventTitle") String eventTitle, @Param("eventPosterUrl") String eventPosterUrl,
+      @Param("venueName") String venueName, @Param("startsAt") Instant startsAt);
+
+  @Query("select coalesce(i.lastMessageId, 0) from ConversationInbox i "
+      + "where i.userId = :userId and i.conversationId = :conversationId")
+  Optional<Long> findLastMessageId(@Param("userId") Long userId, @Param("conversationId") Long conversationId);
+
+  @Modifying
+  @Query("update ConversationInbox i set i.unreadCount = :unreadCount "
+      + "where i.userId = :userId and i.conversationId = :conversationId "
+      + "and coalesce(i.lastMessageId, 0) = :countedHeadId")
+  int setUnreadAtHead(@Param("userId") Long userId, @Param("conversationId") Long conversationId,
+      @Param("unreadCount") int unreadCount, @Param("countedHeadId") Long countedHeadId);
+}
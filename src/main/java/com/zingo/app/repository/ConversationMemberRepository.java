@@ -3,12 +3,26 @@ package com.zingo.app.repository;
 import com.zingo.app.entity.ConversationMember;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ConversationMemberRepository extends JpaRepository<ConversationMember, Long> {
   List<ConversationMember> findByConversationId(Long conversationId);
   List<ConversationMember> findByConversationIdIn(List<Long> conversationIds);
   boolean existsByConversationIdAndUserId(Long conversationId, Long userId);
   long countByConversationId(Long conversationId);
+
+  @Query(value = "select count(*) from conversation_members where conversation_id = :conversationId for share",
+      nativeQuery = true)
+  long lockCountByConversationId(@Param("conversationId") Long conversationId);
   void deleteByConversationId(Long conversationId);
   void deleteByConversationIdAndUserId(Long conversationId, Long userId);
+
+  @Modifying
+  @Query("update ConversationMember m set m.lastReadMessageId = :messageId "
+      + "where m.conversationId = :conversationId and m.userId = :userId "
+      + "and (m.lastReadMessageId is null or m.lastReadMessageId < :messageId)")
+  int advanceLastRead(@Param("conversationId") Long conversationId, @Param("userId") Long userId,
+      @Param("messageId") Long messageId);
 }
@@ -1,22 +1,60 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.Conversation;
+import jakarta.persistence.LockModeType;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface ConversationRepository extends JpaRepository<Conversation, Long> {
-  @Query(
-      "select c from Conversation c where c.id in (select m1.conversationId from ConversationMember m1 where m1.userId = :userA) "
-          + "and c.id in (select m2.conversationId from ConversationMember m2 where m2.userId = :userB) "
-          + "and (select count(m3) from ConversationMember m3 where m3.conversationId = c.id) = 2 "
-          + "order by c.createdAt desc, c.id desc")
-  List<Conversation> findExistingByUsers(@Param("userA") Long userA, @Param("userB") Long userB);
+  Optional<Conversation> findByPairKey(String pairKey);
+
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("select c from Conversation c where c.pairKey = :pairKey")
+  Optional<Conversation> lockByPairKey(@Param("pairKey") String pairKey);
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO conversations (showtime_id, created_at, pair_key)
+      VALUES (:showtimeId, :createdAt, :pairKey)
+      ON DUPLICATE KEY UPDATE id = id
+      """, nativeQuery = true)
+  int insertPairConversation(@Param("showtimeId") Long showtimeId, @Param("createdAt") Instant createdAt,
+      @Param("pairKey") String pairKey);
+
+  @Modifying
+  @Query("update Conversation c set c.pairKey = null where c.id = :conversationId")
+  int clearPairKey(@Param("conversationId") Long conversationId);
+
+  @Query(value = """
+      SELECT d.conversation_id AS duplicateId, c.id AS primaryId
+      FROM (
+        SELECT cm.conversation_id, CONCAT(MIN(cm.user_id), ':', MAX(cm.user_id)) AS pair_key
+        FROM conversation_members cm
+        JOIN conversations dc ON dc.id = cm.conversation_id AND dc.pair_key IS NULL
+        GROUP BY cm.conversation_id
+        HAVING COUNT(*) = 2
+      ) d
+      JOIN conversations c ON c.pair_key = d.pair_key
+      WHERE NOT EXISTS (SELECT 1 FROM trek_groups tg WHERE tg.conversation_id = d.conversation_id)
+      ORDER BY c.id, d.conversation_id
+      """, nativeQuery = true)
+  List<PairDuplicate> findPairDuplicates();
 
   @Query(
       "select c from Conversation c where c.id in (select m.conversationId from ConversationMember m where m.userId = :userId)")
   List<Conversation> findByMember(@Param("userId") Long userId);
 
   List<Conversation> findByShowtimeId(Long showtimeId);
+
+  interface PairDuplicate {
+    Long getDuplicateId();
+
+    Long getPrimaryId();
+  }
 }
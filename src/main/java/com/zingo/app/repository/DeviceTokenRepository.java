@@ -1,12 +1,25 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.DeviceToken;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface DeviceTokenRepository extends JpaRepository<DeviceToken, Long> {
   Optional<DeviceToken> findByToken(String token);
   List<DeviceToken> findByUserId(Long userId);
+  List<DeviceToken> findByUserIdIn(Collection<Long> userIds);
   long deleteByUserIdAndToken(Long userId, String token);
+
+  @Modifying
+  @Query("delete from DeviceToken d where d.token in :tokens")
+  int deleteTokens(@Param("tokens") Collection<String> tokens);
+
+  @Modifying
+  @Query("update DeviceToken d set d.token = :canonicalToken where d.token = :token")
+  int replaceToken(@Param("token") String token, @Param("canonicalToken") String canonicalToken);
 }
@@ -0,0 +1,3 @@
+package com.zingo.app.repository;
+
+public record KeyFingerprintRow(Long userId, String fingerprint) {}
@@ -2,6 +2,7 @@ package com.zingo.app.repository;
 
 import com.zingo.app.entity.LobbyPresence;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,13 +13,51 @@ import org.springframework.data.repository.query.Param;
 
 public interface LobbyPresenceRepository extends JpaRepository<LobbyPresence, Long> {
   Optional<LobbyPresence> findByShowtimeIdAndUserId(Long showtimeId, Long userId);
-  java.util.List<LobbyPresence> findByUserId(Long userId);
+  List<LobbyPresence> findByUserId(Long userId);
   Page<LobbyPresence> findByShowtimeId(Long showtimeId, Pageable pageable);
   long countByShowtimeId(Long showtimeId);
+
+  @Query("select lp.userId from LobbyPresence lp where lp.showtimeId = :showtimeId")
+  List<Long> findUserIdsByShowtimeId(@Param("showtimeId") Long showtimeId);
+
+  @Query("select lp.showtimeId from LobbyPresence lp where lp.userId = :userId")
+  List<Long> findShowtimeIdsByUserId(@Param("userId") Long userId);
   long deleteByShowtimeIdAndUserId(Long showtimeId, Long userId);
   long deleteByShowtimeId(Long showtimeId);
   long deleteByLastSeenAtBefore(Instant cutoff);
 
+  @Query("""
+      select new com.zingo.app.repository.LobbyUserRow(lp.lastSeenAt, p.userId, p.displayName, p.avatarUrl,
+          p.bioShort, p.personalityTags)
+      from LobbyPresence lp join Profile p on p.userId = lp.userId
+      where lp.showtimeId = :showtimeId
+        and lp.userId <> :viewerId
+        and not exists (
+          select b.id from Block b
+          where (b.blockerId = :viewerId and b.blockedId = lp.userId)
+             or (b.blockerId = lp.userId and b.blockedId = :viewerId))
+      order by lp.lastSeenAt desc, lp.userId desc
+      """)
+  List<LobbyUserRow> findVisibleUsers(@Param("showtimeId") Long showtimeId,
+      @Param("viewerId") Long viewerId, Pageable pageable);
+
+  @Query("""
+      select new com.zingo.app.repository.LobbyUserRow(lp.lastSeenAt, p.userId, p.displayName, p.avatarUrl,
+          p.bioShort, p.personalityTags)
+      from LobbyPresence lp join Profile p on p.userId = lp.userId
+      where lp.showtimeId = :showtimeId
+        and lp.userId <> :viewerId
+        and (lp.lastSeenAt < :lastSeenAt or (lp.lastSeenAt = :lastSeenAt and lp.userId < :userId))
+        and not exists (
+          select b.id from Block b
+          where (b.blockerId = :viewerId and b.blockedId = lp.userId)
+             or (b.blockerId = lp.userId and b.blockedId = :viewerId))
+      order by lp.lastSeenAt desc, lp.userId desc
+      """)
+  List<LobbyUserRow> findVisibleUsersAfter(@Param("showtimeId") Long showtimeId,
+      @Param("viewerId") Long viewerId, @Param("lastSeenAt") Instant lastSeenAt, @Param("userId") Long userId,
+      Pageable pageable);
+
   @Modifying
   @Query(value = """
       DELETE lp
@@ -38,4 +77,24 @@ public interface LobbyPresenceRepository extends JpaRepository<LobbyPresence, Lo
       """, nativeQuery = true)
   void upsertPresence(@Param("showtimeId") Long showtimeId, @Param("userId") Long userId,
       @Param("lastSeenAt") Instant lastSeenAt);
+
+
+  @Modifying
+  @Query(value = """
+      INSERT INTO lobby_broadcast_sequences (showtime_id, sequence)
+      VALUES (:showtimeId, LAST_INSERT_ID(1))
+      ON DUPLICATE KEY UPDATE sequence = LAST_INSERT_ID(sequence + 1)
+      """, nativeQuery = true)
+  void advanceBroadcastSequence(@Param("showtimeId") Long showtimeId);
+
+  @Query(value = "SELECT LAST_INSERT_ID()", nativeQuery = true)
+  long lastInsertId();
+
+  @Query(value = "SELECT COALESCE(MAX(sequence), 0) FROM lobby_broadcast_sequences WHERE showtime_id = :showtimeId",
+      nativeQuery = true)
+  long broadcastSequence(@Param("showtimeId") Long showtimeId);
+
+  @Modifying
+  @Query(value = "DELETE FROM lobby_broadcast_sequences WHERE showtime_id = :showtimeId", nativeQuery = true)
+  int deleteBroadcastSequence(@Param("showtimeId") Long showtimeId);
 }
@@ -0,0 +1,12 @@
+package com.zingo.app.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+public record LobbyUserRow(
+    Instant lastSeenAt,
+    Long userId,
+    String displayName,
+    String avatarUrl,
+    String bioShort,
+    List<String> personalityTags) {}
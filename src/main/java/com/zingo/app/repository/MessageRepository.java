@@ -1,7 +1,9 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.Message;
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -9,25 +11,53 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 public interface MessageRepository extends JpaRepository<Message, Long> {
-  List<Message> findByConversationIdOrderByCreatedAtAsc(Long conversationId, Pageable pageable);
-  List<Message> findByConversationIdOrderByCreatedAtDesc(Long conversationId, Pageable pageable);
-  Message findTopByConversationIdOrderByCreatedAtDesc(Long conversationId);
+  List<Message> findByConversationIdOrderByCreatedAtDescIdDesc(Long conversationId, Pageable pageable);
+  Optional<Message> findByIdAndConversationId(Long id, Long conversationId);
+  Optional<Message> findByConversationIdAndSenderIdAndClientMessageId(Long conversationId, Long senderId,
+      String clientMessageId);
+  List<Message> findByConversationIdAndIdGreaterThanOrderByIdAsc(Long conversationId, Long afterId, Pageable pageable);
+
+  @Query("select m from Message m where m.conversationId = :conversationId "
+      + "and (m.createdAt < :createdAt or (m.createdAt = :createdAt and m.id < :id)) "
+      + "order by m.createdAt desc, m.id desc")
+  List<Message> findPageBefore(@Param("conversationId") Long conversationId, @Param("createdAt") Instant createdAt,
+      @Param("id") Long id, Pageable pageable);
+
+  @Query("select m from Message m where m.conversationId = :conversationId "
+      + "and (m.createdAt > :createdAt or (m.createdAt = :createdAt and m.id > :id)) "
+      + "order by m.createdAt asc, m.id asc")
+  List<Message> findPageAfter(@Param("conversationId") Long conversationId, @Param("createdAt") Instant createdAt,
+      @Param("id") Long id, Pageable pageable);
+
   @Query(
       value = """
-          select ranked.id, ranked.conversation_id, ranked.sender_id, ranked.text, ranked.created_at
-          from (
-            select m.id, m.conversation_id, m.sender_id, m.text, m.created_at,
-                   row_number() over (
-                     partition by m.conversation_id
-                     order by m.created_at desc, m.id desc
-                   ) as rn
-            from messages m
-            where m.conversation_id in (:conversationIds)
-          ) ranked
-          where ranked.rn = 1
+          select count(*) from (
+            select 1 from messages m
+            where m.conversation_id = :conversationId and m.id > :afterId and m.id <= :throughId
+              and m.sender_id <> :excludeSenderId
+            limit :limit
+          ) recent
           """,
       nativeQuery = true)
-  List<Message> findLatestByConversationIds(@Param("conversationIds") List<Long> conversationIds);
+  long countBetween(@Param("conversationId") Long conversationId, @Param("afterId") Long afterId,
+      @Param("throughId") Long throughId, @Param("excludeSenderId") Long excludeSenderId, @Param("limit") int limit);
+
+  @Query("select m from Message m where m.payloadFormat = 0 and m.text like 'enc:v1:%' and m.id > :afterId "
+      + "order by m.id asc")
+  List<Message> findPlainCiphertextAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+  @Modifying
+  @Query(
+      value = """
+          update messages s
+          join messages t on t.conversation_id = :targetConversationId
+            and t.sender_id = s.sender_id and t.client_message_id = s.client_message_id
+          set s.client_message_id = null
+          where s.conversation_id = :sourceConversationId
+          """,
+      nativeQuery = true)
+  int clearConflictingClientMessageIds(@Param("sourceConversationId") Long sourceConversationId,
+      @Param("targetConversationId") Long targetConversationId);
 
   @Modifying
   @Query("update Message m set m.conversationId = :targetConversationId where m.conversationId = :sourceConversationId")
@@ -1,11 +1,29 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.Notification;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
-  List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
+  List<Notification> findByUserIdOrderByCreatedAtDescIdDesc(Long userId, Pageable pageable);
   Optional<Notification> findByIdAndUserId(Long id, Long userId);
+
+  @Query("""
+      select n from Notification n
+      where n.userId = :userId
+        and (n.createdAt < :createdAt or (n.createdAt = :createdAt and n.id < :id))
+      order by n.createdAt desc, n.id desc
+      """)
+  List<Notification> findPageBefore(@Param("userId") Long userId, @Param("createdAt") Instant createdAt,
+      @Param("id") Long id, Pageable pageable);
+
+  @Modifying(clearAutomatically = true)
+  @Query("update Notification n set n.readAt = :readAt where n.id = :id and n.userId = :userId and n.readAt is null")
+  int markReadIfUnread(@Param("id") Long id, @Param("userId") Long userId, @Param("readAt") Instant readAt);
 }
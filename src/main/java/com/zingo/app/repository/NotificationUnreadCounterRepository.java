@@ -0,0 +1,26 @@
+package com.zingo.app.repository;
+
+import com.zingo.app.entity.NotificationUnreadCounter;
+import java.time.Instant;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface NotificationUnreadCounterRepository extends JpaRepository<NotificationUnreadCounter, Long> {
+  @Modifying
+  @Query(value = """
+      INSERT INTO notification_unread_counters (user_id, unread_count, updated_at)
+      VALUES (:userId, 1, :now)
+      ON DUPLICATE KEY UPDATE unread_count = unread_count + 1, updated_at = :now
+      """, nativeQuery = true)
+  int increment(@Param("userId") Long userId, @Param("now") Instant now);
+
+  @Modifying
+  @Query(value = """
+      UPDATE notification_unread_counters
+      SET unread_count = GREATEST(unread_count - :delta, 0), updated_at = :now
+      WHERE user_id = :userId
+      """, nativeQuery = true)
+  int decrement(@Param("userId") Long userId, @Param("delta") int delta, @Param("now") Instant now);
+}
@@ -0,0 +1,24 @@
+package com.zingo.app.repository;
+
+import com.zingo.app.entity.OutboxEvent;
+import com.zingo.app.entity.OutboxStatus;
+import java.time.Instant;
+import java.util.List;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  @Query(value = """
+      SELECT *
+      FROM outbox_events
+      WHERE status = 'PENDING'
+        AND available_at <= :now
+      ORDER BY id
+      LIMIT :limit
+      FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<OutboxEvent> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+  long countByStatus(OutboxStatus status);
+}
@@ -1,6 +1,35 @@
 package com.zingo.app.repository;
 
 import com.zingo.app.entity.Profile;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
-public interface ProfileRepository extends JpaRepository<Profile, Long> {}
+public interface ProfileRepository extends JpaRepository<Profile, Long> {
+  List<Profile> findByAvatarUrlStartingWith(String prefix, Pageable pageable);
+
+  @Query("""
+      select new com.zingo.app.repository.ProfileSummary(p.userId, p.displayName, p.avatarUrl, p.bioShort,
+          p.personalityTags, p.e2eeKeyFingerprint)
+      from Profile p
+      where p.userId in :userIds
+      """)
+  List<ProfileSummary> findSummariesByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+  @Query("""
+      select new com.zingo.app.repository.PublicKeyRow(p.userId, p.e2eePublicKey, p.e2eeKeyFingerprint)
+      from Profile p
+      where p.userId in :userIds
+      """)
+  List<PublicKeyRow> findPublicKeysByUserIdIn(@Param("userIds") Collection<Long> userIds);
+
+  @Query("""
+      select new com.zingo.app.repository.KeyFingerprintRow(p.userId, p.e2eeKeyFingerprint)
+      from Profile p
+      where p.userId in :userIds and p.e2eeKeyFingerprint is not null
+      """)
+  List<KeyFingerprintRow> findKeyFingerprintsByUserIdIn(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,11 @@
+package com.zingo.app.repository;
+
+import java.util.List;
+
+public record ProfileSummary(
+    Long userId,
+    String displayName,
+    String avatarUrl,
+    String bioShort,
+    List<String> personalityTags,
+    String e2eeKeyFingerprint) {}
@@ -0,0 +1,3 @@
+package com.zingo.app.repository;
+
+public record PublicKeyRow(Long userId, String publicKey, String fingerprint) {}
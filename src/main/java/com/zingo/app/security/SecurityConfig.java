@@ -34,6 +34,7 @@ public class SecurityConfig {
             .requestMatchers("/api/auth/**").permitAll()
             .requestMatchers(HttpMethod.POST, "/api/waitlist").permitAll()
             .requestMatchers("/ws/**").permitAll()
+            .requestMatchers(HttpMethod.GET, "/api/avatars/**").permitAll()
             .requestMatchers(HttpMethod.GET, "/").permitAll()
             .anyRequest().authenticated())
         .addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
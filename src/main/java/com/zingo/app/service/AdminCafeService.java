@@ -16,11 +16,11 @@ import com.zingo.app.exception.BadRequestException;
 import com.zingo.app.exception.NotFoundException;
 import com.zingo.app.repository.CityRepository;
 import com.zingo.app.repository.ConversationMemberRepository;
+import com.zingo.app.repository.ConversationInboxRepository;
 import com.zingo.app.repository.ConversationRepository;
 import com.zingo.app.repository.EventRepository;
 import com.zingo.app.repository.InviteRepository;
 import com.zingo.app.repository.LobbyPresenceRepository;
-import com.zingo.app.repository.MessageRepository;
 import com.zingo.app.repository.ShowtimeRepository;
 import com.zingo.app.repository.TrekGroupRepository;
 import com.zingo.app.repository.TrekJoinRequestRepository;
@@ -47,18 +47,21 @@ public class AdminCafeService {
   private final EventRepository eventRepository;
   private final ShowtimeRepository showtimeRepository;
   private final LobbyPresenceRepository lobbyPresenceRepository;
+  private final LobbyPresenceEngine lobbyPresenceEngine;
   private final InviteRepository inviteRepository;
   private final ConversationRepository conversationRepository;
   private final ConversationMemberRepository conversationMemberRepository;
-  private final MessageRepository messageRepository;
+  private final ConversationInboxRepository conversationInboxRepository;
+  private final MessageStore messageStore;
   private final TrekGroupRepository trekGroupRepository;
   private final TrekJoinRequestRepository trekJoinRequestRepository;
   private final AdminAuditService adminAuditService;
 
   public AdminCafeService(CityRepository cityRepository, VenueRepository venueRepository, EventRepository eventRepository,
       ShowtimeRepository showtimeRepository, LobbyPresenceRepository lobbyPresenceRepository,
-      InviteRepository inviteRepository, ConversationRepository conversationRepository,
-      ConversationMemberRepository conversationMemberRepository, MessageRepository messageRepository,
+      LobbyPresenceEngine lobbyPresenceEngine, InviteRepository inviteRepository, ConversationRepository conversationRepository,
+      ConversationMemberRepository conversationMemberRepository,
+      ConversationInboxRepository conversationInboxRepository, MessageStore messageStore,
       TrekGroupRepository trekGroupRepository, TrekJoinRequestRepository trekJoinRequestRepository,
       AdminAuditService adminAuditService) {
     this.cityRepository = cityRepository;
@@ -66,10 +69,12 @@ public class AdminCafeService {
     this.eventRepository = eventRepository;
     this.showtimeRepository = showtimeRepository;
     this.lobbyPresenceRepository = lobbyPresenceRepository;
+    this.lobbyPresenceEngine = lobbyPresenceEngine;
     this.inviteRepository = inviteRepository;
     this.conversationRepository = conversationRepository;
     this.conversationMemberRepository = conversationMemberRepository;
-    this.messageRepository = messageRepository;
+    this.conversationInboxRepository = conversationInboxRepository;
+    this.messageStore = messageStore;
     this.trekGroupRepository = trekGroupRepository;
     this.trekJoinRequestRepository = trekJoinRequestRepository;
     this.adminAuditService = adminAuditService;
@@ -317,6 +322,8 @@ public class AdminCafeService {
     Long venueId = showtime.getVenueId();
 
     lobbyPresenceRepository.deleteByShowtimeId(showtimeId);
+    lobbyPresenceRepository.deleteBroadcastSequence(showtimeId);
+    lobbyPresenceEngine.dropShowtime(showtimeId);
 
     List<Invite> invites = inviteRepository.findByShowtimeId(showtimeId);
     if (!invites.isEmpty()) {
@@ -325,8 +332,9 @@ public class AdminCafeService {
 
     List<Conversation> conversations = conversationRepository.findByShowtimeId(showtimeId);
     for (Conversation conversation : conversations) {
-      messageRepository.deleteByConversationId(conversation.getId());
+      messageStore.deleteConversation(conversation.getId());
       conversationMemberRepository.deleteByConversationId(conversation.getId());
+      conversationInboxRepository.deleteByConversationId(conversation.getId());
     }
     if (!conversations.isEmpty()) {
       conversationRepository.deleteAll(conversations);
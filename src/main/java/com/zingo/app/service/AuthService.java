@@ -39,6 +39,7 @@ public class AuthService {
 
   private final UserRepository userRepository;
   private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
   private final EmailOtpChallengeRepository emailOtpChallengeRepository;
   private final PasswordEncoder passwordEncoder;
   private final JwtService jwtService;
@@ -53,6 +54,7 @@ public class AuthService {
   public AuthService(
       UserRepository userRepository,
       ProfileRepository profileRepository,
+      ProfileSummaryCache profileSummaryCache,
       EmailOtpChallengeRepository emailOtpChallengeRepository,
       PasswordEncoder passwordEncoder,
       JwtService jwtService,
@@ -64,6 +66,7 @@ public class AuthService {
       @Value("${app.auth.otp.devExposeCode:false}") boolean otpDevExposeCode) {
     this.userRepository = userRepository;
     this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
     this.emailOtpChallengeRepository = emailOtpChallengeRepository;
     this.passwordEncoder = passwordEncoder;
     this.jwtService = jwtService;
@@ -298,6 +301,7 @@ public class AuthService {
     }
     if (changed) {
       profileRepository.save(profile);
+      profileSummaryCache.invalidate(profile.getUserId());
     }
   }
 
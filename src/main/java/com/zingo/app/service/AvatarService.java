@@ -0,0 +1,122 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Profile;
+import com.zingo.app.exception.BadRequestException;
+import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.service.AvatarStore.StoredAvatar;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class AvatarService {
+  private static final Logger log = LoggerFactory.getLogger(AvatarService.class);
+  private static final String DATA_URI_PREFIX = "data:";
+  private static final Set<String> ALLOWED_TYPES = Set.of("image/png", "image/jpeg", "image/gif", "image/webp");
+  private static final int BACKFILL_BATCH_SIZE = 50;
+
+  private final AvatarStore avatarStore;
+  private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
+  private final AvatarUrls avatarUrls;
+  private final AvatarThumbnailer avatarThumbnailer;
+  private final int maxBytes;
+  private volatile boolean backfillDone;
+
+  public AvatarService(AvatarStore avatarStore, ProfileRepository profileRepository,
+      ProfileSummaryCache profileSummaryCache, AvatarUrls avatarUrls, AvatarThumbnailer avatarThumbnailer,
+      @Value("${app.avatars.maxBytes:5242880}") int maxBytes) {
+    this.avatarStore = avatarStore;
+    this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
+    this.avatarUrls = avatarUrls;
+    this.avatarThumbnailer = avatarThumbnailer;
+    this.maxBytes = maxBytes;
+  }
+
+  public String internalize(String avatarUrl) {
+    if (avatarUrl == null || !avatarUrl.regionMatches(true, 0, DATA_URI_PREFIX, 0, DATA_URI_PREFIX.length())) {
+      return avatarUrl;
+    }
+    int comma = avatarUrl.indexOf(',');
+    if (comma < 0) {
+      throw new BadRequestException("Invalid avatar image");
+    }
+    String header = avatarUrl.substring(DATA_URI_PREFIX.length(), comma).toLowerCase(Locale.ROOT);
+    if (!header.endsWith(";base64")) {
+      throw new BadRequestException("Avatar image must be base64 encoded");
+    }
+    String contentType = header.substring(0, header.indexOf(';'));
+    if (!ALLOWED_TYPES.contains(contentType)) {
+      throw new BadRequestException("Unsupported avatar image type");
+    }
+    byte[] content;
+    try {
+      content = Base64.getMimeDecoder().decode(avatarUrl.substring(comma + 1));
+    } catch (IllegalArgumentException exception) {
+      throw new BadRequestException("Invalid avatar image");
+    }
+    if (content.length == 0) {
+      throw new BadRequestException("Invalid avatar image");
+    }
+    if (content.length > maxBytes) {
+      throw new BadRequestException("Avatar image is too large");
+    }
+    String hash = avatarStore.put(content, contentType);
+    avatarThumbnailer.schedule(hash);
+    return avatarUrls.urlFor(hash);
+  }
+
+  public Optional<StoredAvatar> load(String hash) {
+    if (!avatarUrls.isValidHash(hash)) {
+      return Optional.empty();
+    }
+    return avatarStore.get(hash);
+  }
+
+  public Optional<StoredAvatar> loadThumbnail(String hash, int size) {
+    if (!avatarUrls.isValidHash(hash) || !AvatarUrls.THUMBNAIL_SIZES.contains(size)) {
+      return Optional.empty();
+    }
+    Optional<StoredAvatar> variant = avatarStore.getVariant(hash, size);
+    if (variant.isEmpty()) {
+      avatarThumbnailer.schedule(hash);
+    }
+    return variant;
+  }
+
+  @Scheduled(initialDelayString = "${app.avatars.backfillInitialDelayMs:30000}",
+      fixedDelayString = "${app.avatars.backfillIntervalMs:60000}")
+  public void backfillInlineAvatars() {
+    if (backfillDone) {
+      return;
+    }
+    List<Profile> profiles = profileRepository.findByAvatarUrlStartingWith(DATA_URI_PREFIX,
+        PageRequest.of(0, BACKFILL_BATCH_SIZE));
+    if (profiles.isEmpty()) {
+      backfillDone = true;
+      return;
+    }
+    for (Profile profile : profiles) {
+      String avatarUrl;
+      try {
+        avatarUrl = internalize(profile.getAvatarUrl());
+      } catch (BadRequestException exception) {
+        log.warn("Dropping unusable inline avatar for user {}: {}", profile.getUserId(), exception.getMessage());
+        avatarUrl = null;
+      }
+      profile.setAvatarUrl(avatarUrl);
+      profileRepository.save(profile);
+      profileSummaryCache.invalidate(profile.getUserId());
+    }
+    log.info("Moved {} inline avatars to the avatar store", profiles.size());
+  }
+}
@@ -0,0 +1,15 @@
+package com.zingo.app.service;
+
+import java.util.Optional;
+
+public interface AvatarStore {
+  String put(byte[] content, String contentType);
+
+  Optional<StoredAvatar> get(String hash);
+
+  void putVariant(String hash, int size, byte[] content, String contentType);
+
+  Optional<StoredAvatar> getVariant(String hash, int size);
+
+  record StoredAvatar(String hash, String contentType, byte[] content) {}
+}
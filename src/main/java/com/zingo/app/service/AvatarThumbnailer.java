@@ -0,0 +1,166 @@
+package com.zingo.app.service;
+
+import jakarta.annotation.PreDestroy;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AvatarThumbnailer {
+  private static final Logger log = LoggerFactory.getLogger(AvatarThumbnailer.class);
+  private static final int MAX_SOURCE_DIMENSION = 8192;
+  private static final long MAX_SOURCE_PIXELS = 32L * 1024 * 1024;
+  private static final int LARGEST_THUMBNAIL = Collections.max(AvatarUrls.THUMBNAIL_SIZES);
+  private static final int MAX_FAILED_HASHES = 10_000;
+
+  private final AvatarStore avatarStore;
+  private final ThreadPoolExecutor executor;
+  private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+  private final Set<String> failed = Collections.synchronizedSet(Collections.newSetFromMap(
+      new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+          return size() > MAX_FAILED_HASHES;
+        }
+      }));
+
+  public AvatarThumbnailer(AvatarStore avatarStore,
+      @Value("${app.avatars.thumbnailThreads:2}") int threads,
+      @Value("${app.avatars.thumbnailQueueSize:256}") int queueSize) {
+    this.avatarStore = avatarStore;
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueSize), runnable -> {
+          Thread thread = new Thread(runnable, "avatar-thumbnailer");
+          thread.setDaemon(true);
+          return thread;
+        });
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  public void schedule(String hash) {
+    if (failed.contains(hash) || !inFlight.add(hash)) {
+      return;
+    }
+    try {
+      executor.execute(() -> {
+        try {
+          generate(hash);
+        } finally {
+          inFlight.remove(hash);
+        }
+      });
+    } catch (RejectedExecutionException exception) {
+      inFlight.remove(hash);
+      log.debug("Thumbnail queue full, skipping avatar {}", hash);
+    }
+  }
+
+  void generate(String hash) {
+    AvatarStore.StoredAvatar original = avatarStore.get(hash).orElse(null);
+    if (original == null) {
+      return;
+    }
+    try {
+      BufferedImage source = decodeSquare(original.content());
+      if (source == null) {
+        failed.add(hash);
+        return;
+      }
+      boolean alpha = source.getColorModel().hasAlpha();
+      String format = alpha ? "png" : "jpg";
+      String contentType = alpha ? "image/png" : "image/jpeg";
+      BufferedImage square = cropSquare(source);
+      for (int size : AvatarUrls.THUMBNAIL_SIZES) {
+        if (avatarStore.getVariant(hash, size).isPresent()) {
+          continue;
+        }
+        BufferedImage scaled = scale(square, Math.min(size, square.getWidth()), alpha);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(scaled, format, out)) {
+          failed.add(hash);
+          return;
+        }
+        avatarStore.putVariant(hash, size, out.toByteArray(), contentType);
+      }
+    } catch (IOException | RuntimeException exception) {
+      failed.add(hash);
+      log.warn("Failed to generate thumbnails for avatar {}", hash, exception);
+    }
+  }
+
+  private BufferedImage decodeSquare(byte[] content) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(content))) {
+      Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+      if (readers == null || !readers.hasNext()) {
+        return null;
+      }
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        int width = reader.getWidth(0);
+        int height = reader.getHeight(0);
+        if (width <= 0 || height <= 0 || width > MAX_SOURCE_DIMENSION || height > MAX_SOURCE_DIMENSION
+            || (long) width * height > MAX_SOURCE_PIXELS) {
+          log.warn("Skipping thumbnails for a {}x{} avatar", width, height);
+          return null;
+        }
+        int side = Math.min(width, height);
+        int subsampling = Math.max(1, side / LARGEST_THUMBNAIL);
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private BufferedImage cropSquare(BufferedImage source) {
+    int side = Math.min(source.getWidth(), source.getHeight());
+    int x = (source.getWidth() - side) / 2;
+    int y = (source.getHeight() - side) / 2;
+    return source.getSubimage(x, y, side, side);
+  }
+
+  private BufferedImage scale(BufferedImage source, int size, boolean alpha) {
+    BufferedImage target = new BufferedImage(size, size, alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = target.createGraphics();
+    try {
+      graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+      graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+      graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+      graphics.drawImage(source, 0, 0, size, size, null);
+    } finally {
+      graphics.dispose();
+    }
+    return target;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
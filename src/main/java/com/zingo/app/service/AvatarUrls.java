@@ -0,0 +1,51 @@
+package com.zingo.app.service;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class AvatarUrls {
+  public static final List<Integer> THUMBNAIL_SIZES = List.of(64, 128, 256);
+  public static final int LIST_SIZE = 64;
+
+  private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+  private static final Pattern STORED_URL_PATTERN = Pattern.compile(".*/api/avatars/([0-9a-f]{64})");
+
+  private final String publicBaseUrl;
+
+  public AvatarUrls(@Value("${app.avatars.publicBaseUrl:}") String publicBaseUrl) {
+    this.publicBaseUrl = publicBaseUrl.endsWith("/") ? publicBaseUrl.substring(0, publicBaseUrl.length() - 1)
+        : publicBaseUrl;
+  }
+
+  public boolean isValidHash(String hash) {
+    return hash != null && HASH_PATTERN.matcher(hash).matches();
+  }
+
+  public String urlFor(String hash) {
+    return publicBaseUrl + "/api/avatars/" + hash;
+  }
+
+  public String hashOf(String avatarUrl) {
+    if (avatarUrl == null) {
+      return null;
+    }
+    Matcher matcher = STORED_URL_PATTERN.matcher(avatarUrl);
+    return matcher.matches() ? matcher.group(1) : null;
+  }
+
+  public String listUrl(String avatarUrl) {
+    return thumbnailUrl(avatarUrl, LIST_SIZE);
+  }
+
+  public String thumbnailUrl(String avatarUrl, int size) {
+    String hash = hashOf(avatarUrl);
+    if (hash == null) {
+      return avatarUrl;
+    }
+    return urlFor(hash) + "/" + size;
+  }
+}
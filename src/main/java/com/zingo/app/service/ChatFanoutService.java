@@ -0,0 +1,72 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Block;
+import com.zingo.app.repository.BlockRepository;
+import com.zingo.app.service.PushDeliveryService.PushResult;
+import com.zingo.app.websocket.WebSocketSessionRegistry;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ChatFanoutService {
+  private final ConversationMembershipCache membershipCache;
+  private final BlockRepository blockRepository;
+  private final PushTokenService pushTokenService;
+  private final PushDeliveryService pushDeliveryService;
+  private final PushDigestService pushDigestService;
+  private final WebSocketSessionRegistry sessionRegistry;
+
+  public ChatFanoutService(ConversationMembershipCache membershipCache, BlockRepository blockRepository,
+      PushTokenService pushTokenService, PushDeliveryService pushDeliveryService,
+      PushDigestService pushDigestService, WebSocketSessionRegistry sessionRegistry) {
+    this.membershipCache = membershipCache;
+    this.blockRepository = blockRepository;
+    this.pushTokenService = pushTokenService;
+    this.pushDeliveryService = pushDeliveryService;
+    this.pushDigestService = pushDigestService;
+    this.sessionRegistry = sessionRegistry;
+  }
+
+  public CompletableFuture<PushResult> deliver(Long conversationId, Long senderId, String title, String body, Map<String, Object> data) {
+    List<Long> offline = resolveRecipients(conversationId, senderId).stream()
+        .filter(userId -> !sessionRegistry.isViewingConversation(userId, conversationId))
+        .toList();
+    List<Long> recipients = pushDigestService.admit(conversationId, offline, title, data);
+    if (recipients.isEmpty()) {
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
+    }
+    CompletableFuture<PushResult> delivery;
+    try {
+      List<String> tokens = pushTokenService.listTokensForUsers(recipients);
+      delivery = pushDeliveryService.sendToTokens(tokens, title, body, data,
+          PushDigestService.collapseKey(conversationId));
+    } catch (RuntimeException ex) {
+      pushDigestService.release(conversationId, recipients);
+      throw ex;
+    }
+    return delivery.whenComplete((result, failure) -> {
+      if (failure != null) {
+        pushDigestService.release(conversationId, recipients);
+      }
+    });
+  }
+
+  public List<Long> resolveRecipients(Long conversationId, Long senderId) {
+    List<Long> others = membershipCache.get(conversationId).others(senderId);
+    if (others.isEmpty()) {
+      return List.of();
+    }
+    Set<Long> blocked = new HashSet<>();
+    for (Block block : blockRepository.findBetweenUserAndAny(senderId, others)) {
+      blocked.add(block.getBlockerId().equals(senderId) ? block.getBlockedId() : block.getBlockerId());
+    }
+    if (blocked.isEmpty()) {
+      return others;
+    }
+    return others.stream().filter(id -> !blocked.contains(id)).toList();
+  }
+}
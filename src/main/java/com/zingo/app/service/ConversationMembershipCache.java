@@ -0,0 +1,176 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.CacheInvalidation;
+import com.zingo.app.entity.ConversationMember;
+import com.zingo.app.repository.BlockRepository;
+import com.zingo.app.repository.CacheInvalidationRepository;
+import com.zingo.app.repository.ConversationMemberRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ConversationMembershipCache {
+  private static final Duration INVALIDATION_WINDOW = Duration.ofSeconds(30);
+
+  private final ConversationMemberRepository conversationMemberRepository;
+  private final BlockRepository blockRepository;
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final CacheInvalidationRepository invalidationRepository;
+  private final boolean distributed;
+  private final AtomicLong blockEpoch = new AtomicLong();
+  private final AtomicLong generation = new AtomicLong();
+  private final LinkedHashMap<Long, Membership> entries;
+  private final Map<Long, Instant> appliedInvalidations = new HashMap<>();
+
+  public ConversationMembershipCache(ConversationMemberRepository conversationMemberRepository,
+      BlockRepository blockRepository,
+      CacheInvalidationRepository invalidationRepository,
+      @Value("${app.membershipCache.maxEntries:20000}") int maxEntries,
+      @Value("${app.membershipCache.ttlSeconds:60}") long ttlSeconds,
+      @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+    this.conversationMemberRepository = conversationMemberRepository;
+    this.blockRepository = blockRepository;
+    this.invalidationRepository = invalidationRepository;
+    // With the relay several nodes cache the same conversations, so invalidations are shared through the database.
+    this.distributed = "relay".equalsIgnoreCase(brokerMode);
+    this.maxEntries = Math.max(1, maxEntries);
+    this.ttlMillis = ttlSeconds * 1000L;
+    this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Membership> eldest) {
+        return size() > ConversationMembershipCache.this.maxEntries;
+      }
+    };
+  }
+
+  public Membership get(Long conversationId) {
+    long now = System.currentTimeMillis();
+    Membership cached;
+    synchronized (entries) {
+      cached = entries.get(conversationId);
+    }
+    if (cached != null && cached.expiresAt() > now && cached.blockEpoch() == blockEpoch.get()) {
+      return cached;
+    }
+    return load(conversationId);
+  }
+
+  public Membership requireMember(Long conversationId, Long userId) {
+    Membership membership = get(conversationId);
+    if (membership.contains(userId)) {
+      return membership;
+    }
+    Membership reloaded = load(conversationId);
+    return reloaded.contains(userId) ? reloaded : null;
+  }
+
+  public void invalidate(Long conversationId) {
+    evict(conversationId);
+    publish(CacheInvalidation.SCOPE_MEMBERSHIP, conversationId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(conversationId);
+        }
+      });
+    }
+  }
+
+  public void onBlocksChanged() {
+    blockEpoch.incrementAndGet();
+    publish(CacheInvalidation.SCOPE_BLOCKS, null);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          blockEpoch.incrementAndGet();
+        }
+      });
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.membershipCache.invalidationPollMs:1000}")
+  public void pollInvalidations() {
+    if (!distributed) {
+      return;
+    }
+    Instant now = Instant.now();
+    Instant since = now.minus(INVALIDATION_WINDOW);
+    appliedInvalidations.values().removeIf(createdAt -> createdAt.isBefore(since));
+    for (CacheInvalidation invalidation : invalidationRepository.findByCreatedAtGreaterThanEqualOrderByIdAsc(since)) {
+      if (appliedInvalidations.putIfAbsent(invalidation.getId(), invalidation.getCreatedAt()) != null) {
+        continue;
+      }
+      if (CacheInvalidation.SCOPE_BLOCKS.equals(invalidation.getScope())) {
+        blockEpoch.incrementAndGet();
+      } else if (invalidation.getTargetId() != null) {
+        evict(invalidation.getTargetId());
+      }
+    }
+  }
+
+  @Scheduled(fixedDelay = 3600000)
+  @Transactional
+  public void pruneInvalidations() {
+    if (distributed) {
+      invalidationRepository.deleteOlderThan(Instant.now().minus(Duration.ofHours(1)));
+    }
+  }
+
+  private void publish(String scope, Long targetId) {
+    if (!distributed) {
+      return;
+    }
+    CacheInvalidation invalidation = new CacheInvalidation();
+    invalidation.setScope(scope);
+    invalidation.setTargetId(targetId);
+    invalidationRepository.save(invalidation);
+  }
+
+  private Membership load(Long conversationId) {
+    long epoch = blockEpoch.get();
+    long loadGeneration = generation.get();
+    List<ConversationMember> members = conversationMemberRepository.findByConversationId(conversationId);
+    long[] memberIds = members.stream().mapToLong(ConversationMember::getUserId).sorted().toArray();
+    boolean blocked = memberIds.length == 2
+        && blockRepository.existsBetweenAny(Arrays.stream(memberIds).boxed().toList());
+    Membership membership = new Membership(memberIds, blocked, epoch, System.currentTimeMillis() + ttlMillis);
+    synchronized (entries) {
+      if (generation.get() == loadGeneration) {
+        entries.put(conversationId, membership);
+      }
+    }
+    return membership;
+  }
+
+  private void evict(Long conversationId) {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      entries.remove(conversationId);
+    }
+  }
+
+  public record Membership(long[] memberIds, boolean blocked, long blockEpoch, long expiresAt) {
+    public boolean contains(Long userId) {
+      return userId != null && Arrays.binarySearch(memberIds, userId) >= 0;
+    }
+
+    public List<Long> others(Long userId) {
+      return Arrays.stream(memberIds).filter(id -> id != userId).boxed().toList();
+    }
+  }
+}
@@ -1,101 +1,138 @@
 package com.zingo.app.service;
 
+import com.zingo.app.dto.ChatDtos.ChatSyncResponse;
+import com.zingo.app.dto.ChatDtos.ConversationDelta;
 import com.zingo.app.dto.ChatDtos.ConversationDto;
 import com.zingo.app.dto.ChatDtos.MessageDto;
 import com.zingo.app.entity.Conversation;
+import com.zingo.app.entity.ConversationInbox;
 import com.zingo.app.entity.ConversationMember;
 import com.zingo.app.entity.Event;
 import com.zingo.app.entity.Message;
-import com.zingo.app.entity.Profile;
 import com.zingo.app.entity.Showtime;
 import com.zingo.app.entity.Venue;
 import com.zingo.app.exception.BadRequestException;
 import com.zingo.app.exception.NotFoundException;
+import com.zingo.app.repository.ConversationInboxRepository;
 import com.zingo.app.repository.ConversationMemberRepository;
 import com.zingo.app.repository.ConversationRepository;
 import com.zingo.app.repository.EventRepository;
-import com.zingo.app.repository.MessageRepository;
-import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.ProfileSummary;
 import com.zingo.app.repository.ShowtimeRepository;
 import com.zingo.app.repository.VenueRepository;
 import com.zingo.app.security.SecurityUtil;
+import com.zingo.app.service.ConversationMembershipCache.Membership;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
-import java.util.Comparator;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 @Service
 public class ConversationService {
+  private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+  private static final int MAX_SYNC_CONVERSATIONS = 100;
+  private static final int DEFAULT_SYNC_LIMIT = 50;
+  private static final int MAX_CLIENT_MESSAGE_ID_LENGTH = 64;
+  private static final int MAX_INBOX_PAGE_SIZE = 100;
+  private static final int MAX_PREVIEW_LENGTH = 500;
+
   private final ConversationRepository conversationRepository;
   private final ConversationMemberRepository conversationMemberRepository;
-  private final MessageRepository messageRepository;
-  private final ProfileRepository profileRepository;
+  private final ConversationInboxRepository conversationInboxRepository;
+  private final MessageStore messageStore;
+  private final ProfileSummaryCache profileSummaryCache;
+  private final ConversationMembershipCache membershipCache;
   private final ShowtimeRepository showtimeRepository;
   private final EventRepository eventRepository;
   private final VenueRepository venueRepository;
-  private final SafetyService safetyService;
   private final SimpMessagingTemplate messagingTemplate;
-  private final PushDeliveryService pushDeliveryService;
+  private final OutboxService outboxService;
+  private final ReadReceiptBuffer readReceiptBuffer;
+  private final TransactionTemplate transactionTemplate;
 
   public ConversationService(ConversationRepository conversationRepository,
       ConversationMemberRepository conversationMemberRepository,
-      MessageRepository messageRepository,
-      ProfileRepository profileRepository,
+      ConversationInboxRepository conversationInboxRepository,
+      MessageStore messageStore,
+      ProfileSummaryCache profileSummaryCache,
+      ConversationMembershipCache membershipCache,
       ShowtimeRepository showtimeRepository,
       EventRepository eventRepository,
       VenueRepository venueRepository,
-      SafetyService safetyService,
       SimpMessagingTemplate messagingTemplate,
-      PushDeliveryService pushDeliveryService) {
+      OutboxService outboxService,
+      ReadReceiptBuffer readReceiptBuffer,
+      PlatformTransactionManager transactionManager) {
     this.conversationRepository = conversationRepository;
     this.conversationMemberRepository = conversationMemberRepository;
-    this.messageRepository = messageRepository;
-    this.profileRepository = profileRepository;
+    this.conversationInboxRepository = conversationInboxRepository;
+    this.messageStore = messageStore;
+    this.profileSummaryCache = profileSummaryCache;
+    this.membershipCache = membershipCache;
     this.showtimeRepository = showtimeRepository;
     this.eventRepository = eventRepository;
     this.venueRepository = venueRepository;
-    this.safetyService = safetyService;
     this.messagingTemplate = messagingTemplate;
-    this.pushDeliveryService = pushDeliveryService;
+    this.outboxService = outboxService;
+    this.readReceiptBuffer = readReceiptBuffer;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @Transactional
   public Long openConversation(Long showtimeId, Long userA, Long userB) {
-    List<Conversation> existing = conversationRepository.findExistingByUsers(userA, userB);
-    if (!existing.isEmpty()) {
-      Conversation primary = existing.get(0);
-      if (showtimeId != null && !showtimeId.equals(primary.getShowtimeId())) {
-        primary.setShowtimeId(showtimeId);
-        conversationRepository.save(primary);
+    String pairKey = pairKey(userA, userB);
+    Conversation existing = conversationRepository.findByPairKey(pairKey).orElse(null);
+    if (existing == null) {
+      conversationRepository.insertPairConversation(showtimeId, Instant.now(), pairKey);
+      Conversation saved = conversationRepository.lockByPairKey(pairKey)
+          .orElseThrow(() -> new IllegalStateException("Pair conversation missing after insert"));
+      // The upsert reports a found row either way, so whoever sees it memberless adds the pair; the
+      // locking count reads past this transaction's snapshot to the creator's committed members.
+      if (conversationMemberRepository.lockCountByConversationId(saved.getId()) == 0) {
+        addPairMembers(saved, userA, userB);
+        return saved.getId();
       }
+      existing = saved;
+    }
 
-      // Deduplicate historic duplicate threads for the same pair by merging into primary.
-      if (existing.size() > 1) {
-        for (int i = 1; i < existing.size(); i++) {
-          Conversation duplicate = existing.get(i);
-          if (duplicate.getId().equals(primary.getId())) {
-            continue;
-          }
-          messageRepository.moveConversationMessages(duplicate.getId(), primary.getId());
-          conversationMemberRepository.deleteByConversationId(duplicate.getId());
-          conversationRepository.deleteById(duplicate.getId());
-        }
-      }
-      return primary.getId();
+    if (showtimeId != null && !showtimeId.equals(existing.getShowtimeId())) {
+      existing.setShowtimeId(showtimeId);
+      conversationRepository.save(existing);
+      ShowtimeSnapshot snapshot = loadShowtimeSnapshot(showtimeId);
+      conversationInboxRepository.updateShowtimeSnapshot(existing.getId(), showtimeId, snapshot.eventTitle(),
+          snapshot.eventPosterUrl(), snapshot.venueName(), snapshot.startsAt());
     }
+    return existing.getId();
+  }
 
-    Conversation conversation = new Conversation();
-    conversation.setShowtimeId(showtimeId);
-    Conversation saved = conversationRepository.save(conversation);
+  @Transactional
+  public void mergeDuplicatePair(Long duplicateId, Long primaryId) {
+    if (duplicateId.equals(primaryId)) {
+      return;
+    }
+    messageStore.moveConversation(duplicateId, primaryId);
+    conversationMemberRepository.deleteByConversationId(duplicateId);
+    membershipCache.invalidate(duplicateId);
+    conversationInboxRepository.deleteByConversationId(duplicateId);
+    conversationRepository.deleteById(duplicateId);
+    refreshInboxLastMessage(primaryId);
+  }
 
+  private void addPairMembers(Conversation saved, Long userA, Long userB) {
+    Long showtimeId = saved.getShowtimeId();
     ConversationMember memberA = new ConversationMember();
     memberA.setConversationId(saved.getId());
     memberA.setUserId(userA);
@@ -106,7 +143,14 @@ public class ConversationService {
     memberB.setUserId(userB);
     conversationMemberRepository.save(memberB);
 
-    return saved.getId();
+    ShowtimeSnapshot snapshot = loadShowtimeSnapshot(showtimeId);
+    conversationInboxRepository.save(newInboxEntry(saved, userA, snapshot));
+    conversationInboxRepository.save(newInboxEntry(saved, userB, snapshot));
+    membershipCache.invalidate(saved.getId());
+  }
+
+  private String pairKey(Long userA, Long userB) {
+    return Math.min(userA, userB) + ":" + Math.max(userA, userB);
   }
 
   @Transactional
@@ -119,6 +163,8 @@ public class ConversationService {
     hostMember.setConversationId(saved.getId());
     hostMember.setUserId(hostUserId);
     conversationMemberRepository.save(hostMember);
+    membershipCache.invalidate(saved.getId());
+    conversationInboxRepository.save(newInboxEntry(saved, hostUserId, loadShowtimeSnapshot(showtimeId)));
     return saved.getId();
   }
 
@@ -134,75 +180,41 @@ public class ConversationService {
     member.setConversationId(conversationId);
     member.setUserId(userId);
     conversationMemberRepository.save(member);
+    membershipCache.invalidate(conversationId);
+    addInboxEntry(conversationId, userId);
   }
 
-  public List<ConversationDto> listForCurrentUser() {
+  public List<ConversationDto> listForCurrentUser(int page, int size) {
     Long userId = SecurityUtil.currentUserId();
-    List<Conversation> conversations = conversationRepository.findByMember(userId);
-    if (conversations.isEmpty()) {
+    PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE)));
+    List<ConversationInbox> entries =
+        conversationInboxRepository.findByUserIdOrderByLastActivityAtDescConversationIdDesc(userId, pageRequest);
+    if (entries.isEmpty()) {
       return List.of();
     }
 
-    List<Long> conversationIds = conversations.stream().map(Conversation::getId).toList();
-
+    List<Long> conversationIds = entries.stream().map(ConversationInbox::getConversationId).toList();
     Map<Long, List<Long>> membersByConversation = new HashMap<>();
-    Set<Long> otherUserIds = new HashSet<>();
+    Map<Long, Long> lastReadByConversation = new HashMap<>();
+    Set<Long> memberIds = new HashSet<>();
     for (ConversationMember member : conversationMemberRepository.findByConversationIdIn(conversationIds)) {
       membersByConversation.computeIfAbsent(member.getConversationId(), key -> new ArrayList<>()).add(member.getUserId());
-      if (!member.getUserId().equals(userId)) {
-        otherUserIds.add(member.getUserId());
+      memberIds.add(member.getUserId());
+      if (member.getUserId().equals(userId) && member.getLastReadMessageId() != null) {
+        lastReadByConversation.put(member.getConversationId(), member.getLastReadMessageId());
       }
     }
 
-    Set<Long> showtimeIds = new HashSet<>();
-    for (Conversation conversation : conversations) {
-      showtimeIds.add(conversation.getShowtimeId());
-    }
-    Map<Long, Showtime> showtimeById = new HashMap<>();
-    for (Showtime showtime : showtimeRepository.findAllById(showtimeIds)) {
-      showtimeById.put(showtime.getId(), showtime);
-    }
-
-    Set<Long> eventIds = new HashSet<>();
-    Set<Long> venueIds = new HashSet<>();
-    for (Showtime showtime : showtimeById.values()) {
-      eventIds.add(showtime.getEventId());
-      venueIds.add(showtime.getVenueId());
-    }
-
-    Map<Long, Event> eventById = new HashMap<>();
-    for (Event event : eventRepository.findAllById(eventIds)) {
-      eventById.put(event.getId(), event);
-    }
-
-    Map<Long, Venue> venueById = new HashMap<>();
-    for (Venue venue : venueRepository.findAllById(venueIds)) {
-      venueById.put(venue.getId(), venue);
-    }
-
-    Map<Long, Profile> profileByUserId = new HashMap<>();
-    if (!otherUserIds.isEmpty()) {
-      for (Profile profile : profileRepository.findAllById(otherUserIds)) {
-        profileByUserId.put(profile.getUserId(), profile);
-      }
-    }
+    Map<Long, ProfileSummary> profileByUserId = profileSummaryCache.getAll(memberIds);
 
-    Map<Long, Message> lastMessageByConversation = new HashMap<>();
-    for (Message message : messageRepository.findLatestByConversationIds(conversationIds)) {
-      lastMessageByConversation.put(message.getConversationId(), message);
-    }
-
-    List<ConversationDto> dtos = new ArrayList<>();
-    for (Conversation conversation : conversations) {
-      Showtime showtime = showtimeById.get(conversation.getShowtimeId());
-      Event event = showtime != null ? eventById.get(showtime.getEventId()) : null;
-      Venue venue = showtime != null ? venueById.get(showtime.getVenueId()) : null;
-      List<Long> members = membersByConversation.getOrDefault(conversation.getId(), List.of());
+    List<ConversationDto> dtos = new ArrayList<>(entries.size());
+    for (ConversationInbox entry : entries) {
+      List<Long> members = membersByConversation.getOrDefault(entry.getConversationId(), List.of());
       List<String> participantNames = members.stream()
           .filter(id -> !id.equals(userId))
           .map(profileByUserId::get)
           .filter(java.util.Objects::nonNull)
-          .map(Profile::getDisplayName)
+          .map(ProfileSummary::displayName)
           .filter(name -> name != null && !name.isBlank())
           .distinct()
           .toList();
@@ -211,138 +223,328 @@ public class ConversationService {
         if (memberId == null) {
           continue;
         }
+        ProfileSummary memberProfile = profileByUserId.get(memberId);
         if (memberId.equals(userId)) {
-          Profile self = profileRepository.findById(memberId).orElse(null);
-          participantNameByUserId.put(memberId, self != null ? self.getDisplayName() : "You");
+          participantNameByUserId.put(memberId, memberProfile != null ? memberProfile.displayName() : "You");
           continue;
         }
-        Profile memberProfile = profileByUserId.get(memberId);
-        if (memberProfile != null && memberProfile.getDisplayName() != null && !memberProfile.getDisplayName().isBlank()) {
-          participantNameByUserId.put(memberId, memberProfile.getDisplayName());
+        if (memberProfile != null && memberProfile.displayName() != null && !memberProfile.displayName().isBlank()) {
+          participantNameByUserId.put(memberId, memberProfile.displayName());
         }
       }
       Long otherUserId = members.stream().filter(id -> !id.equals(userId)).findFirst().orElse(null);
-      Profile otherProfile = otherUserId != null ? profileByUserId.get(otherUserId) : null;
-      Message lastMessage = lastMessageByConversation.get(conversation.getId());
+      ProfileSummary otherProfile = otherUserId != null ? profileByUserId.get(otherUserId) : null;
+      Long lastRead = lastReadByConversation.get(entry.getConversationId());
+      int unreadCount = entry.getUnreadCount();
+      Long pendingRead = readReceiptBuffer.pendingFor(entry.getConversationId(), userId);
+      if (pendingRead != null && (lastRead == null || pendingRead > lastRead)) {
+        lastRead = pendingRead;
+        if (entry.getLastMessageId() != null && pendingRead >= entry.getLastMessageId()) {
+          unreadCount = 0;
+        }
+      }
       dtos.add(new ConversationDto(
-          conversation.getId(),
-          conversation.getShowtimeId(),
-          event != null ? event.getTitle() : null,
-          event != null ? event.getPosterUrl() : null,
-          venue != null ? venue.getName() : null,
-          showtime != null ? showtime.getStartsAt() : null,
+          entry.getConversationId(),
+          entry.getShowtimeId(),
+          entry.getEventTitle(),
+          entry.getEventPosterUrl(),
+          entry.getVenueName(),
+          entry.getStartsAt(),
           members,
           participantNames,
           participantNameByUserId,
           otherUserId,
-          otherProfile != null ? otherProfile.getDisplayName() : null,
-          otherProfile != null ? otherProfile.getAvatarUrl() : null,
-          otherProfile != null ? otherProfile.getE2eePublicKey() : null,
-          lastMessage != null ? summarizeLastMessage(lastMessage.getText()) : null,
-          lastMessage != null ? lastMessage.getCreatedAt() : null));
-    }
-    dtos.sort((a, b) -> {
-      boolean aHasLast = a.lastMessageAt() != null;
-      boolean bHasLast = b.lastMessageAt() != null;
-      if (aHasLast != bHasLast) {
-        return bHasLast ? 1 : -1;
-      }
+          otherProfile != null ? otherProfile.displayName() : null,
+          otherProfile != null ? otherProfile.avatarUrl() : null,
+          otherProfile != null ? otherProfile.e2eeKeyFingerprint() : null,
+          entry.getLastMessagePreview(),
+          entry.getLastMessageAt(),
+          unreadCount,
+          lastRead));
+    }
+    return dtos;
+  }
 
-      if (aHasLast && bHasLast) {
-        int byLast = Comparator.<java.time.Instant>nullsLast(Comparator.naturalOrder())
-            .compare(b.lastMessageAt(), a.lastMessageAt());
-        if (byLast != 0) {
-          return byLast;
-        }
+  public void markRead(Long conversationId, Long messageId) {
+    Long userId = SecurityUtil.currentUserId();
+    ensureMember(conversationId, userId);
+    Long lastMessageId = conversationInboxRepository.findByUserIdAndConversationId(userId, conversationId)
+        .map(ConversationInbox::getLastMessageId)
+        .orElse(null);
+    if (lastMessageId == null) {
+      return;
+    }
+    readReceiptBuffer.record(conversationId, userId, messageId == null ? lastMessageId : Math.min(messageId, lastMessageId));
+  }
+
+  public List<MessageDto> listMessages(Long conversationId, Long before, Long after, int size) {
+    if (before != null && after != null) {
+      throw new BadRequestException("Use either before or after, not both");
+    }
+    Long userId = SecurityUtil.currentUserId();
+    ensureMember(conversationId, userId);
+    int limit = Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE));
+    List<Message> pageItems;
+    if (after != null) {
+      pageItems = messageStore.findAfter(requireCursor(conversationId, after), limit);
+    } else {
+      List<Message> newestFirst;
+      if (before != null) {
+        newestFirst = messageStore.findBefore(requireCursor(conversationId, before), limit);
       } else {
-        int byStart = Comparator.<java.time.Instant>nullsLast(Comparator.naturalOrder())
-            .compare(b.startsAt(), a.startsAt());
-        if (byStart != 0) {
-          return byStart;
-        }
+        newestFirst = messageStore.findLatest(conversationId, limit);
       }
-      return Comparator.<Long>nullsLast(Comparator.reverseOrder()).compare(a.id(), b.id());
-    });
-    return dtos;
+      pageItems = new ArrayList<>(newestFirst);
+      Collections.reverse(pageItems);
+    }
+    Map<Long, String> senderNameById = senderNames(pageItems);
+    return pageItems.stream().map((message) -> toDto(message, senderNameById.get(message.getSenderId()))).toList();
   }
 
-  public List<MessageDto> listMessages(Long conversationId, int page, int size) {
+  public List<MessageDto> listMessagesPage(Long conversationId, int page, int size) {
     Long userId = SecurityUtil.currentUserId();
     ensureMember(conversationId, userId);
-    List<Message> pageItems = messageRepository.findByConversationIdOrderByCreatedAtDesc(conversationId, PageRequest.of(page, size));
+    int limit = Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE));
+    List<Message> newestFirst = messageStore.findLatest(conversationId, limit);
+    for (int skipped = 0; skipped < page && !newestFirst.isEmpty(); skipped++) {
+      newestFirst = newestFirst.size() < limit
+          ? List.of()
+          : messageStore.findBefore(newestFirst.get(newestFirst.size() - 1), limit);
+    }
+    List<Message> pageItems = new ArrayList<>(newestFirst);
     Collections.reverse(pageItems);
+    Map<Long, String> senderNameById = senderNames(pageItems);
+    return pageItems.stream().map((message) -> toDto(message, senderNameById.get(message.getSenderId()))).toList();
+  }
+
+  public List<MessageDto> listMessagesSince(Long conversationId, Long afterId, int size) {
+    Long userId = SecurityUtil.currentUserId();
+    ensureMember(conversationId, userId);
+    List<Message> pageItems =
+        messageStore.findSince(conversationId, afterId, Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE)));
+    Map<Long, String> senderNameById = senderNames(pageItems);
+    return pageItems.stream().map((message) -> toDto(message, senderNameById.get(message.getSenderId()))).toList();
+  }
+
+  @Transactional(readOnly = true)
+  public ChatSyncResponse sync(Map<Long, Long> lastSeenMessageIds, Integer limitPerConversation) {
+    if (lastSeenMessageIds.size() > MAX_SYNC_CONVERSATIONS) {
+      throw new BadRequestException("Too many conversations to sync");
+    }
+    if (lastSeenMessageIds.isEmpty()) {
+      return new ChatSyncResponse(List.of());
+    }
+    Long userId = SecurityUtil.currentUserId();
+    int cap = Math.max(1, Math.min(limitPerConversation == null ? DEFAULT_SYNC_LIMIT : limitPerConversation,
+        MAX_MESSAGE_PAGE_SIZE));
+
+    Map<Long, List<Message>> pending = new LinkedHashMap<>();
+    List<Message> fetched = new ArrayList<>();
+    for (ConversationInbox inbox :
+        conversationInboxRepository.findByUserIdAndConversationIdIn(userId, lastSeenMessageIds.keySet())) {
+      Long conversationId = inbox.getConversationId();
+      long lastSeen = lastSeenMessageIds.get(conversationId) == null ? 0L : lastSeenMessageIds.get(conversationId);
+      if (inbox.getLastMessageId() == null || inbox.getLastMessageId() <= lastSeen) {
+        continue;
+      }
+      List<Message> messages = messageStore.findSince(conversationId, lastSeen, cap + 1);
+      pending.put(conversationId, messages);
+      fetched.addAll(messages);
+    }
+
+    Map<Long, String> senderNameById = senderNames(fetched);
+    List<ConversationDelta> deltas = new ArrayList<>(pending.size());
+    for (Map.Entry<Long, List<Message>> entry : pending.entrySet()) {
+      List<Message> messages = entry.getValue();
+      boolean hasMore = messages.size() > cap;
+      List<MessageDto> items = messages.subList(0, Math.min(cap, messages.size())).stream()
+          .map((message) -> toDto(message, senderNameById.get(message.getSenderId())))
+          .toList();
+      deltas.add(new ConversationDelta(entry.getKey(), items, hasMore));
+    }
+    return new ChatSyncResponse(deltas);
+  }
+
+  private Map<Long, String> senderNames(List<Message> messages) {
     Set<Long> senderIds = new HashSet<>();
-    for (Message message : pageItems) {
+    for (Message message : messages) {
       if (message.getSenderId() != null) {
         senderIds.add(message.getSenderId());
       }
     }
     Map<Long, String> senderNameById = new HashMap<>();
-    for (Profile profile : profileRepository.findAllById(senderIds)) {
-      senderNameById.put(profile.getUserId(), profile.getDisplayName());
+    for (ProfileSummary profile : profileSummaryCache.getAll(senderIds).values()) {
+      senderNameById.put(profile.userId(), profile.displayName());
     }
-    return pageItems.stream().map((message) -> toDto(message, senderNameById.get(message.getSenderId()))).toList();
+    return senderNameById;
   }
 
-  @Transactional
-  public MessageDto sendMessage(Long conversationId, String text) {
-    Long userId = SecurityUtil.currentUserId();
-    ensureMember(conversationId, userId);
-    List<Long> members = conversationMemberRepository.findByConversationId(conversationId).stream()
-        .map(ConversationMember::getUserId)
-        .toList();
-    Long otherUser = members.stream().filter(id -> !id.equals(userId)).findFirst().orElse(null);
-    if (otherUser != null && safetyService.isBlockedBetween(userId, otherUser)) {
+  private Message requireCursor(Long conversationId, Long messageId) {
+    return messageStore.findById(conversationId, messageId)
+        .orElseThrow(() -> new BadRequestException("Unknown message cursor"));
+  }
+
+  public MessageDto sendMessage(Long conversationId, String text, String clientMessageId) {
+    return sendMessage(SecurityUtil.currentUserId(), conversationId, text, clientMessageId);
+  }
+
+  public MessageDto sendMessage(Long userId, Long conversationId, String text, String clientMessageId) {
+    if (text == null || text.isBlank()) {
+      throw new BadRequestException("Message text is required");
+    }
+    String clientId = clientMessageId == null || clientMessageId.isBlank() ? null : clientMessageId;
+    if (clientId != null && clientId.length() > MAX_CLIENT_MESSAGE_ID_LENGTH) {
+      throw new BadRequestException("Client message id is too long");
+    }
+    try {
+      return transactionTemplate.execute(status -> storeMessage(userId, conversationId, text, clientId));
+    } catch (DataIntegrityViolationException exception) {
+      // Unique (conversation_id, sender_id, client_message_id) race: a concurrent retry stored it first.
+      if (clientId == null) {
+        throw exception;
+      }
+      return findSentByClientId(userId, conversationId, clientId).orElseThrow(() -> exception);
+    }
+  }
+
+  private MessageDto storeMessage(Long userId, Long conversationId, String text, String clientMessageId) {
+    Membership membership = ensureMember(conversationId, userId);
+    if (clientMessageId != null) {
+      Optional<MessageDto> duplicate = findSentByClientId(userId, conversationId, clientMessageId);
+      if (duplicate.isPresent()) {
+        return duplicate.get();
+      }
+    }
+    if (membership.blocked()) {
       throw new BadRequestException("Cannot chat with this user");
     }
 
     Message message = new Message();
     message.setConversationId(conversationId);
     message.setSenderId(userId);
-    message.setText(text);
-    Message saved = messageRepository.save(message);
-
-    Profile sender = profileRepository.findById(userId).orElse(null);
-    String senderName = sender != null && sender.getDisplayName() != null ? sender.getDisplayName() : "Someone";
+    MessagePayloads.write(message, text);
+    message.setClientMessageId(clientMessageId);
+    Message saved = messageStore.append(message);
+    conversationInboxRepository.recordMessage(conversationId, saved.getId(), userId, previewOf(saved),
+        saved.getCreatedAt());
+
+    ProfileSummary sender = profileSummaryCache.get(userId);
+    String senderName = sender != null && sender.displayName() != null ? sender.displayName() : "Someone";
     MessageDto dto = toDto(saved, senderName);
-    messagingTemplate.convertAndSend("/topic/chat." + conversationId, dto);
-    if (otherUser != null) {
-      String preview = summarizeLastMessage(text);
+    outboxService.afterCommit(() -> messagingTemplate.convertAndSend("/topic/chat." + conversationId, dto));
+    List<Long> recipients = membership.others(userId);
+    if (!recipients.isEmpty()) {
+      String preview = summarizeLastMessage(saved);
       Map<String, Object> data = new HashMap<>();
       data.put("pushType", "CHAT");
       data.put("conversationId", conversationId);
       data.put("senderId", userId);
-      pushDeliveryService.sendToUser(otherUser, "New message from " + senderName, preview, data);
+      outboxService.enqueueChatFanout(conversationId, userId, "New message from " + senderName, preview, data);
     }
     return dto;
   }
 
-  private void ensureMember(Long conversationId, Long userId) {
-    if (!conversationMemberRepository.existsByConversationIdAndUserId(conversationId, userId)) {
+  public Optional<MessageDto> findSentByClientId(Long userId, Long conversationId, String clientMessageId) {
+    return messageStore.findByClientMessageId(conversationId, userId, clientMessageId).map(this::toDto);
+  }
+
+  private Membership ensureMember(Long conversationId, Long userId) {
+    Membership membership = membershipCache.requireMember(conversationId, userId);
+    if (membership == null) {
       throw new NotFoundException("Conversation not found");
     }
+    return membership;
   }
 
   public MessageDto toDto(Message message) {
-    String senderName = profileRepository.findById(message.getSenderId())
-        .map(Profile::getDisplayName)
-        .orElse(null);
+    ProfileSummary sender = profileSummaryCache.get(message.getSenderId());
+    String senderName = sender != null ? sender.displayName() : null;
     return toDto(message, senderName);
   }
 
   private MessageDto toDto(Message message, String senderName) {
-    return new MessageDto(message.getId(), message.getConversationId(), message.getSenderId(), senderName, message.getText(),
-        message.getCreatedAt());
+    return new MessageDto(message.getId(), message.getConversationId(), message.getSenderId(), senderName,
+        MessagePayloads.wireText(message), message.getCreatedAt(), message.getClientMessageId());
+  }
+
+  private String previewOf(Message message) {
+    String summary = summarizeLastMessage(message);
+    if (summary == null || summary.length() <= MAX_PREVIEW_LENGTH) {
+      return summary;
+    }
+    return summary.substring(0, MAX_PREVIEW_LENGTH);
+  }
+
+  private void addInboxEntry(Long conversationId, Long userId) {
+    if (conversationInboxRepository.existsByUserIdAndConversationId(userId, conversationId)) {
+      return;
+    }
+    ConversationInbox sibling = conversationInboxRepository.findFirstByConversationId(conversationId).orElse(null);
+    ConversationInbox entry;
+    if (sibling != null) {
+      entry = new ConversationInbox();
+      entry.setConversationId(conversationId);
+      entry.setShowtimeId(sibling.getShowtimeId());
+      entry.setEventTitle(sibling.getEventTitle());
+      entry.setEventPosterUrl(sibling.getEventPosterUrl());
+      entry.setVenueName(sibling.getVenueName());
+      entry.setStartsAt(sibling.getStartsAt());
+      entry.setLastMessageId(sibling.getLastMessageId());
+      entry.setLastMessageSenderId(sibling.getLastMessageSenderId());
+      entry.setLastMessagePreview(sibling.getLastMessagePreview());
+      entry.setLastMessageAt(sibling.getLastMessageAt());
+      entry.setLastActivityAt(Instant.now());
+    } else {
+      Conversation conversation = conversationRepository.findById(conversationId)
+          .orElseThrow(() -> new NotFoundException("Conversation not found"));
+      entry = newInboxEntry(conversation, userId, loadShowtimeSnapshot(conversation.getShowtimeId()));
+    }
+    entry.setUserId(userId);
+    entry.setUnreadCount(0);
+    conversationInboxRepository.save(entry);
   }
 
-  private String summarizeLastMessage(String text) {
-    if (text == null) {
-      return null;
+  private ConversationInbox newInboxEntry(Conversation conversation, Long userId, ShowtimeSnapshot snapshot) {
+    ConversationInbox entry = new ConversationInbox();
+    entry.setUserId(userId);
+    entry.setConversationId(conversation.getId());
+    entry.setShowtimeId(conversation.getShowtimeId());
+    entry.setEventTitle(snapshot.eventTitle());
+    entry.setEventPosterUrl(snapshot.eventPosterUrl());
+    entry.setVenueName(snapshot.venueName());
+    entry.setStartsAt(snapshot.startsAt());
+    entry.setLastActivityAt(conversation.getCreatedAt() != null ? conversation.getCreatedAt() : Instant.now());
+    return entry;
+  }
+
+  private void refreshInboxLastMessage(Long conversationId) {
+    Message latest = messageStore.findLast(conversationId).orElse(null);
+    if (latest == null) {
+      return;
     }
-    if (text.startsWith("enc:v1:")) {
+    conversationInboxRepository.replaceLastMessage(conversationId, latest.getId(), latest.getSenderId(),
+        previewOf(latest), latest.getCreatedAt());
+  }
+
+  private ShowtimeSnapshot loadShowtimeSnapshot(Long showtimeId) {
+    Showtime showtime = showtimeId != null ? showtimeRepository.findById(showtimeId).orElse(null) : null;
+    if (showtime == null) {
+      return new ShowtimeSnapshot(null, null, null, null);
+    }
+    Event event = eventRepository.findById(showtime.getEventId()).orElse(null);
+    Venue venue = venueRepository.findById(showtime.getVenueId()).orElse(null);
+    return new ShowtimeSnapshot(
+        event != null ? event.getTitle() : null,
+        event != null ? event.getPosterUrl() : null,
+        venue != null ? venue.getName() : null,
+        showtime.getStartsAt());
+  }
+
+  private String summarizeLastMessage(Message message) {
+    if (MessagePayloads.isEncrypted(message)) {
       return "Encrypted message";
     }
-    return text;
+    return message.getText();
   }
 
   @Transactional
@@ -350,10 +552,16 @@ public class ConversationService {
     Long userId = SecurityUtil.currentUserId();
     ensureMember(conversationId, userId);
     conversationMemberRepository.deleteByConversationIdAndUserId(conversationId, userId);
+    membershipCache.invalidate(conversationId);
+    conversationInboxRepository.deleteByUserIdAndConversationId(userId, conversationId);
+    conversationRepository.clearPairKey(conversationId);
     long remaining = conversationMemberRepository.countByConversationId(conversationId);
     if (remaining == 0) {
-      messageRepository.deleteByConversationId(conversationId);
+      messageStore.deleteConversation(conversationId);
+      conversationInboxRepository.deleteByConversationId(conversationId);
       conversationRepository.deleteById(conversationId);
     }
   }
+
+  private record ShowtimeSnapshot(String eventTitle, String eventPosterUrl, String venueName, Instant startsAt) {}
 }
@@ -0,0 +1,83 @@
+package com.zingo.app.service;
+
+import com.zingo.app.repository.DeviceTokenRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class DeadTokenPruner {
+  private static final Logger log = LoggerFactory.getLogger(DeadTokenPruner.class);
+  private static final int PRUNE_BATCH_SIZE = 500;
+
+  private final DeviceTokenRepository deviceTokenRepository;
+  private final Set<String> pending = ConcurrentHashMap.newKeySet();
+  private final ConcurrentHashMap<String, String> canonical = new ConcurrentHashMap<>();
+
+  public DeadTokenPruner(DeviceTokenRepository deviceTokenRepository) {
+    this.deviceTokenRepository = deviceTokenRepository;
+  }
+
+  public void report(Collection<String> tokens) {
+    pending.addAll(tokens);
+  }
+
+  public void reportCanonical(Map<String, String> replacements) {
+    canonical.putAll(replacements);
+  }
+
+  public boolean isPending(String token) {
+    return pending.contains(token);
+  }
+
+  @Scheduled(fixedDelayString = "${app.push.tokenPruneFlushMs:5000}")
+  @Transactional
+  public void flush() {
+    replaceCanonical();
+    if (pending.isEmpty()) {
+      return;
+    }
+    int pruned = 0;
+    List<String> batch = new ArrayList<>(PRUNE_BATCH_SIZE);
+    Iterator<String> iterator = pending.iterator();
+    while (iterator.hasNext()) {
+      batch.add(iterator.next());
+      if (batch.size() == PRUNE_BATCH_SIZE || !iterator.hasNext()) {
+        pruned += deviceTokenRepository.deleteTokens(batch);
+        batch.forEach(pending::remove);
+        batch.clear();
+      }
+    }
+    if (pruned > 0) {
+      log.info("Pruned {} dead device tokens", pruned);
+    }
+  }
+
+  private void replaceCanonical() {
+    int replaced = 0;
+    for (Map.Entry<String, String> entry : new ArrayList<>(canonical.entrySet())) {
+      String token = entry.getKey();
+      String canonicalToken = entry.getValue();
+      if (!canonical.remove(token, canonicalToken)) {
+        continue;
+      }
+      if (deviceTokenRepository.findByToken(canonicalToken).isPresent()) {
+        pending.add(token);
+      } else {
+        replaced += deviceTokenRepository.replaceToken(token, canonicalToken);
+      }
+    }
+    if (replaced > 0) {
+      log.info("Replaced {} device tokens with canonical registration ids", replaced);
+    }
+  }
+}
@@ -0,0 +1,92 @@
+package com.zingo.app.service;
+
+import com.zingo.app.dto.KeyDtos.PublicKeyDto;
+import com.zingo.app.exception.BadRequestException;
+import com.zingo.app.repository.KeyFingerprintRow;
+import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.PublicKeyRow;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import org.springframework.stereotype.Service;
+
+@Service
+public class E2eeKeyService {
+  public static final int MAX_BATCH_SIZE = 100;
+
+  private final ProfileRepository profileRepository;
+
+  public E2eeKeyService(ProfileRepository profileRepository) {
+    this.profileRepository = profileRepository;
+  }
+
+  public static String fingerprint(String publicKey) {
+    if (publicKey == null || publicKey.isBlank()) {
+      return null;
+    }
+    return HexFormat.of().formatHex(sha256(publicKey.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  public String currentFingerprint(Long userId) {
+    return currentFingerprints(List.of(userId)).get(userId);
+  }
+
+  public Map<Long, String> currentFingerprints(Collection<Long> userIds) {
+    requireBatchSize(userIds);
+    Map<Long, String> fingerprints = new TreeMap<>();
+    if (userIds.isEmpty()) {
+      return fingerprints;
+    }
+    for (KeyFingerprintRow row : profileRepository.findKeyFingerprintsByUserIdIn(userIds)) {
+      fingerprints.put(row.userId(), row.fingerprint());
+    }
+    return fingerprints;
+  }
+
+  public Optional<PublicKeyDto> find(Long userId) {
+    return findAll(List.of(userId)).stream().findFirst();
+  }
+
+  public List<PublicKeyDto> findAll(Collection<Long> userIds) {
+    requireBatchSize(userIds);
+    if (userIds.isEmpty()) {
+      return List.of();
+    }
+    Map<Long, PublicKeyDto> keys = new LinkedHashMap<>();
+    for (PublicKeyRow row : profileRepository.findPublicKeysByUserIdIn(userIds)) {
+      if (row.fingerprint() != null) {
+        keys.put(row.userId(), new PublicKeyDto(row.userId(), row.publicKey(), row.fingerprint()));
+      }
+    }
+    return userIds.stream().distinct().map(keys::get).filter(key -> key != null).toList();
+  }
+
+  public static String batchTag(Map<Long, String> fingerprints) {
+    StringBuilder joined = new StringBuilder();
+    for (Map.Entry<Long, String> entry : new TreeMap<>(fingerprints).entrySet()) {
+      joined.append(entry.getKey()).append(':').append(entry.getValue()).append(';');
+    }
+    return HexFormat.of().formatHex(sha256(joined.toString().getBytes(StandardCharsets.UTF_8)));
+  }
+
+  private void requireBatchSize(Collection<Long> userIds) {
+    if (userIds.size() > MAX_BATCH_SIZE) {
+      throw new BadRequestException("Too many users requested");
+    }
+  }
+
+  private static byte[] sha256(byte[] content) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(content);
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+}
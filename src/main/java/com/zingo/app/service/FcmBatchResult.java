@@ -0,0 +1,69 @@
+package com.zingo.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public record FcmBatchResult(
+    int status,
+    int success,
+    int failure,
+    List<String> invalidTokens,
+    List<String> unavailableTokens,
+    Map<String, String> canonicalTokens) {
+
+  private static final Set<String> INVALID_TOKEN_ERRORS =
+      Set.of("NotRegistered", "InvalidRegistration", "MismatchSenderId", "MissingRegistration");
+  private static final Set<String> UNAVAILABLE_ERRORS = Set.of("Unavailable", "InternalServerError");
+
+  public static FcmBatchResult parse(ObjectMapper objectMapper, List<String> tokens, int status, String body) {
+    if (status != 200) {
+      List<String> unavailable = status == 429 || status >= 500 ? List.copyOf(tokens) : List.of();
+      return new FcmBatchResult(status, 0, tokens.size(), List.of(), unavailable, Map.of());
+    }
+    JsonNode results;
+    try {
+      results = body == null || body.isBlank() ? null : objectMapper.readTree(body).path("results");
+    } catch (IOException exception) {
+      results = null;
+    }
+    if (results == null || !results.isArray()) {
+      return new FcmBatchResult(status, tokens.size(), 0, List.of(), List.of(), Map.of());
+    }
+    int success = 0;
+    int failure = 0;
+    List<String> invalid = new ArrayList<>();
+    List<String> unavailable = new ArrayList<>();
+    Map<String, String> canonical = new LinkedHashMap<>();
+    for (int i = 0; i < tokens.size() && i < results.size(); i++) {
+      String token = tokens.get(i);
+      JsonNode result = results.get(i);
+      String error = result.path("error").asText("");
+      if (error.isEmpty()) {
+        success++;
+        String registrationId = result.path("registration_id").asText("");
+        if (!registrationId.isEmpty() && !registrationId.equals(token)) {
+          canonical.put(token, registrationId);
+        }
+        continue;
+      }
+      failure++;
+      if (INVALID_TOKEN_ERRORS.contains(error)) {
+        invalid.add(token);
+      } else if (UNAVAILABLE_ERRORS.contains(error)) {
+        unavailable.add(token);
+      }
+    }
+    return new FcmBatchResult(status, success, failure, List.copyOf(invalid), List.copyOf(unavailable),
+        Map.copyOf(canonical));
+  }
+
+  public boolean retryable() {
+    return !unavailableTokens.isEmpty();
+  }
+}
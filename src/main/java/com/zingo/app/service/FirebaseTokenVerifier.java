@@ -4,11 +4,10 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.zingo.app.exception.BadRequestException;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Header;
 import io.jsonwebtoken.Jws;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SigningKeyResolverAdapter;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
@@ -47,16 +46,7 @@ public class FirebaseTokenVerifier {
   public VerifiedFirebaseToken verify(String idToken) {
     try {
       Jws<Claims> jwt = Jwts.parserBuilder()
-          .setSigningKeyResolver(new SigningKeyResolverAdapter() {
-            @Override
-            public Key resolveSigningKey(Header header, Claims claims) {
-              String keyId = header.getKeyId();
-              if (keyId == null || keyId.isBlank()) {
-                throw new BadRequestException("Missing Firebase token key ID");
-              }
-              return getPublicKey(keyId);
-            }
-          })
+          .setSigningKey(getPublicKey(keyIdOf(idToken)))
           .build()
           .parseClaimsJws(idToken);
 
@@ -89,6 +79,19 @@ public class FirebaseTokenVerifier {
     }
   }
 
+  private String keyIdOf(String idToken) throws IOException {
+    int separator = idToken == null ? -1 : idToken.indexOf('.');
+    if (separator <= 0) {
+      throw new BadRequestException("Invalid Firebase ID token");
+    }
+    byte[] header = Base64.getUrlDecoder().decode(idToken.substring(0, separator));
+    String keyId = objectMapper.readTree(header).path("kid").asText("");
+    if (keyId.isBlank()) {
+      throw new BadRequestException("Missing Firebase token key ID");
+    }
+    return keyId;
+  }
+
   private void validateClaims(Claims claims) {
     Date now = new Date();
     if (claims.getExpiration() == null || !claims.getExpiration().after(now)) {
@@ -7,14 +7,13 @@ import com.zingo.app.entity.Invite;
 import com.zingo.app.entity.InviteStatus;
 import com.zingo.app.entity.NotificationType;
 import com.zingo.app.entity.Event;
-import com.zingo.app.entity.Profile;
 import com.zingo.app.entity.Showtime;
 import com.zingo.app.exception.BadRequestException;
 import com.zingo.app.exception.NotFoundException;
 import com.zingo.app.exception.TooManyRequestsException;
 import com.zingo.app.repository.InviteRepository;
 import com.zingo.app.repository.EventRepository;
-import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.ProfileSummary;
 import com.zingo.app.repository.ShowtimeRepository;
 import com.zingo.app.security.SecurityUtil;
 import java.time.Instant;
@@ -32,7 +31,7 @@ public class InviteService {
   private final InviteRepository inviteRepository;
   private final ShowtimeRepository showtimeRepository;
   private final EventRepository eventRepository;
-  private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
   private final SafetyService safetyService;
   private final NotificationService notificationService;
   private final ConversationService conversationService;
@@ -42,14 +41,14 @@ public class InviteService {
 
   public InviteService(InviteRepository inviteRepository, ShowtimeRepository showtimeRepository,
       EventRepository eventRepository,
-      ProfileRepository profileRepository, SafetyService safetyService, NotificationService notificationService,
+      ProfileSummaryCache profileSummaryCache, SafetyService safetyService, NotificationService notificationService,
       ConversationService conversationService, LobbyService lobbyService,
       @Value("${app.invites.dailyLimit}") int dailyLimit,
       @Value("${app.invites.cooldownSeconds}") int cooldownSeconds) {
     this.inviteRepository = inviteRepository;
     this.showtimeRepository = showtimeRepository;
     this.eventRepository = eventRepository;
-    this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
     this.safetyService = safetyService;
     this.notificationService = notificationService;
     this.conversationService = conversationService;
@@ -67,8 +66,9 @@ public class InviteService {
     if (safetyService.isBlockedBetween(fromUserId, request.toUserId())) {
       throw new BadRequestException("Cannot invite this user");
     }
-    profileRepository.findById(request.toUserId())
-        .orElseThrow(() -> new NotFoundException("User not found"));
+    if (profileSummaryCache.get(request.toUserId()) == null) {
+      throw new NotFoundException("User not found");
+    }
     Showtime showtime = showtimeRepository.findById(request.showtimeId())
         .orElseThrow(() -> new NotFoundException("Showtime not found"));
     Event event = eventRepository.findById(showtime.getEventId()).orElse(null);
@@ -92,12 +92,12 @@ public class InviteService {
     invite.setStatus(InviteStatus.PENDING);
     invite = inviteRepository.save(invite);
 
-    Profile fromProfile = profileRepository.findById(fromUserId).orElse(null);
+    ProfileSummary fromProfile = profileSummaryCache.get(fromUserId);
     Map<String, Object> payload = new HashMap<>();
     payload.put("inviteId", invite.getId());
     payload.put("fromUserId", fromUserId);
-    payload.put("fromDisplayName", fromProfile != null ? fromProfile.getDisplayName() : "Someone");
-    payload.put("fromAvatarUrl", fromProfile != null ? fromProfile.getAvatarUrl() : null);
+    payload.put("fromDisplayName", fromProfile != null ? fromProfile.displayName() : "Someone");
+    payload.put("fromAvatarUrl", fromProfile != null ? fromProfile.avatarUrl() : null);
     payload.put("showtimeId", showtime.getId());
     payload.put("startsAt", showtime.getStartsAt() != null ? showtime.getStartsAt().toString() : null);
     payload.put("eventTitle", event != null ? event.getTitle() : null);
@@ -119,14 +119,14 @@ public class InviteService {
     Long conversationId = conversationService.openConversation(invite.getShowtimeId(), invite.getFromUserId(), userId);
     lobbyService.removeUsersFromLobby(invite.getShowtimeId(), List.of(invite.getFromUserId(), userId));
 
-    Profile accepterProfile = profileRepository.findById(userId).orElse(null);
+    ProfileSummary accepterProfile = profileSummaryCache.get(userId);
     Map<String, Object> payload = new HashMap<>();
     payload.put("type", "INVITE_ACCEPTED");
     payload.put("conversationId", conversationId);
     payload.put("inviteId", inviteId);
     payload.put("fromUserId", userId);
-    payload.put("fromDisplayName", accepterProfile != null ? accepterProfile.getDisplayName() : "Someone");
-    payload.put("fromAvatarUrl", accepterProfile != null ? accepterProfile.getAvatarUrl() : null);
+    payload.put("fromDisplayName", accepterProfile != null ? accepterProfile.displayName() : "Someone");
+    payload.put("fromAvatarUrl", accepterProfile != null ? accepterProfile.avatarUrl() : null);
     payload.put("showtimeId", invite.getShowtimeId());
     notificationService.createAndSend(invite.getFromUserId(), NotificationType.SYSTEM, payload);
 
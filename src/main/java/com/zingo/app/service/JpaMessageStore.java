@@ -0,0 +1,119 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Message;
+import com.zingo.app.repository.MessageRepository;
+import java.util.List;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@ConditionalOnProperty(name = "app.chat.messageStore", havingValue = "jpa", matchIfMissing = true)
+public class JpaMessageStore implements MessageStore {
+  private static final Logger log = LoggerFactory.getLogger(JpaMessageStore.class);
+  private static final int BACKFILL_BATCH_SIZE = 500;
+
+  private final MessageRepository messageRepository;
+  private final boolean ciphertextBackfillEnabled;
+  private volatile long backfillCursor;
+  private volatile boolean backfillDone;
+
+  public JpaMessageStore(MessageRepository messageRepository,
+      @Value("${app.chat.ciphertextBackfill.enabled:false}") boolean ciphertextBackfillEnabled) {
+    this.messageRepository = messageRepository;
+    this.ciphertextBackfillEnabled = ciphertextBackfillEnabled;
+  }
+
+  @Override
+  public Message append(Message message) {
+    return messageRepository.save(message);
+  }
+
+  @Override
+  public Optional<Message> findById(Long conversationId, Long messageId) {
+    return messageRepository.findByIdAndConversationId(messageId, conversationId);
+  }
+
+  @Override
+  public Optional<Message> findLast(Long conversationId) {
+    return messageRepository.findByConversationIdOrderByCreatedAtDescIdDesc(conversationId, PageRequest.of(0, 1))
+        .stream()
+        .findFirst();
+  }
+
+  @Override
+  public List<Message> findLatest(Long conversationId, int limit) {
+    return messageRepository.findByConversationIdOrderByCreatedAtDescIdDesc(conversationId, PageRequest.of(0, limit));
+  }
+
+  @Override
+  public List<Message> findBefore(Message cursor, int limit) {
+    return messageRepository.findPageBefore(cursor.getConversationId(), cursor.getCreatedAt(), cursor.getId(),
+        PageRequest.of(0, limit));
+  }
+
+  @Override
+  public List<Message> findAfter(Message cursor, int limit) {
+    return messageRepository.findPageAfter(cursor.getConversationId(), cursor.getCreatedAt(), cursor.getId(),
+        PageRequest.of(0, limit));
+  }
+
+  @Override
+  public List<Message> findSince(Long conversationId, Long afterId, int limit) {
+    return messageRepository.findByConversationIdAndIdGreaterThanOrderByIdAsc(conversationId, afterId,
+        PageRequest.of(0, limit));
+  }
+
+  @Override
+  public Optional<Message> findByClientMessageId(Long conversationId, Long senderId, String clientMessageId) {
+    return messageRepository.findByConversationIdAndSenderIdAndClientMessageId(conversationId, senderId,
+        clientMessageId);
+  }
+
+  @Override
+  public long countBetween(Long conversationId, Long afterId, Long throughId, Long excludeSenderId, int limit) {
+    return messageRepository.countBetween(conversationId, afterId, throughId, excludeSenderId, limit);
+  }
+
+  @Override
+  public void moveConversation(Long sourceConversationId, Long targetConversationId) {
+    // Client ids are unique per conversation; a retry key present on both sides would collide after the move.
+    messageRepository.clearConflictingClientMessageIds(sourceConversationId, targetConversationId);
+    messageRepository.moveConversationMessages(sourceConversationId, targetConversationId);
+  }
+
+  @Override
+  public void deleteConversation(Long conversationId) {
+    messageRepository.deleteByConversationId(conversationId);
+  }
+
+  @Scheduled(initialDelayString = "${app.chat.ciphertextBackfill.initialDelayMs:60000}",
+      fixedDelayString = "${app.chat.ciphertextBackfill.intervalMs:5000}")
+  @Transactional
+  public void backfillCiphertext() {
+    if (!ciphertextBackfillEnabled || backfillDone) {
+      return;
+    }
+    // Converted rows drop out of the indexed predicate, so a restart only rescans rows still waiting; the
+    // cursor just steps past malformed payloads that stay as text.
+    List<Message> batch =
+        messageRepository.findPlainCiphertextAfter(backfillCursor, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+    if (batch.isEmpty()) {
+      backfillDone = true;
+      log.info("Ciphertext backfill finished at message {}", backfillCursor);
+      return;
+    }
+    for (Message message : batch) {
+      if (message.getPayloadFormat() == MessagePayloads.FORMAT_TEXT && MessagePayloads.isEncrypted(message)) {
+        MessagePayloads.write(message, message.getText());
+      }
+    }
+    backfillCursor = batch.get(batch.size() - 1).getId();
+  }
+}
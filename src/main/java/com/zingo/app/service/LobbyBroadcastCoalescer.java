@@ -0,0 +1,102 @@
+package com.zingo.app.service;
+
+import com.zingo.app.dto.LobbyDtos.LobbyPresenceUpdate;
+import com.zingo.app.repository.LobbyPresenceRepository;
+import com.zingo.app.service.LobbyPresenceEngine.RosterRetired;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Component
+public class LobbyBroadcastCoalescer {
+  private final LobbyPresenceEngine presenceEngine;
+  private final LobbyPresenceRepository lobbyPresenceRepository;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final boolean distributed;
+  private final Set<Long> dirtyShowtimes = ConcurrentHashMap.newKeySet();
+  private final ConcurrentHashMap<Long, Channel> channels = new ConcurrentHashMap<>();
+
+  public LobbyBroadcastCoalescer(LobbyPresenceEngine presenceEngine, LobbyPresenceRepository lobbyPresenceRepository,
+      SimpMessagingTemplate messagingTemplate, PlatformTransactionManager transactionManager,
+      @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+    this.presenceEngine = presenceEngine;
+    this.lobbyPresenceRepository = lobbyPresenceRepository;
+    this.messagingTemplate = messagingTemplate;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    // With the relay every node publishes to the same lobby topic, so the sequence has to come from shared state.
+    this.distributed = "relay".equalsIgnoreCase(brokerMode);
+  }
+
+  public void markDirty(Long showtimeId) {
+    dirtyShowtimes.add(showtimeId);
+  }
+
+  public LobbyPresenceUpdate current(Long showtimeId) {
+    long sequence;
+    if (distributed) {
+      sequence = lobbyPresenceRepository.broadcastSequence(showtimeId);
+    } else {
+      Channel channel = channels.get(showtimeId);
+      sequence = channel == null ? 0 : channel.sequence;
+    }
+    return new LobbyPresenceUpdate(showtimeId, presenceEngine.count(showtimeId), Instant.now(), sequence);
+  }
+
+  @Scheduled(fixedRateString = "${app.lobby.broadcastWindowMs:500}")
+  public void flush() {
+    if (dirtyShowtimes.isEmpty()) {
+      return;
+    }
+    for (Long showtimeId : new ArrayList<>(dirtyShowtimes)) {
+      dirtyShowtimes.remove(showtimeId);
+      long count = presenceEngine.count(showtimeId);
+      Channel channel = channels.computeIfAbsent(showtimeId, key -> new Channel(System.currentTimeMillis()));
+      if (channel.lastCount == count) {
+        continue;
+      }
+      LobbyPresenceUpdate update = distributed ? nextShared(showtimeId) : nextLocal(showtimeId, channel, count);
+      channel.lastCount = update.count();
+      messagingTemplate.convertAndSend("/topic/lobby." + showtimeId, update);
+      if (update.count() == 0) {
+        channels.remove(showtimeId, channel);
+      }
+    }
+  }
+
+  @EventListener
+  public void onRosterRetired(RosterRetired retired) {
+    channels.remove(retired.showtimeId());
+  }
+
+  private LobbyPresenceUpdate nextLocal(Long showtimeId, Channel channel, long count) {
+    channel.sequence++;
+    return new LobbyPresenceUpdate(showtimeId, count, Instant.now(), channel.sequence);
+  }
+
+  // The sequence row stays locked until commit, so the count read after it is never older than a lower sequence's.
+  private LobbyPresenceUpdate nextShared(Long showtimeId) {
+    return transactionTemplate.execute(status -> {
+      lobbyPresenceRepository.advanceBroadcastSequence(showtimeId);
+      long sequence = lobbyPresenceRepository.lastInsertId();
+      return new LobbyPresenceUpdate(showtimeId, presenceEngine.count(showtimeId), Instant.now(), sequence);
+    });
+  }
+
+  private static final class Channel {
+    private volatile long sequence;
+    private volatile long lastCount = -1;
+
+    private Channel(long seed) {
+      this.sequence = seed;
+    }
+  }
+}
@@ -0,0 +1,337 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.LobbyPresence;
+import com.zingo.app.repository.LobbyPresenceRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+@Component
+public class LobbyPresenceEngine {
+  private static final Logger log = LoggerFactory.getLogger(LobbyPresenceEngine.class);
+  private static final int STRIPE_COUNT = 32;
+
+  private final LobbyPresenceRepository lobbyPresenceRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final long persistIntervalMillis;
+  private final boolean databaseBacked;
+  private final AtomicLong versions = new AtomicLong(System.currentTimeMillis());
+  private final Stripe[] stripes = new Stripe[STRIPE_COUNT];
+  private final ConcurrentHashMap<Long, Set<Long>> showtimesByUser = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, Set<Long>> pendingFlush = new ConcurrentHashMap<>();
+
+  public LobbyPresenceEngine(
+      LobbyPresenceRepository lobbyPresenceRepository,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${app.lobby.persistIntervalSeconds:60}") long persistIntervalSeconds,
+      @Value("${app.websocket.broker.mode:simple}") String brokerMode) {
+    this.lobbyPresenceRepository = lobbyPresenceRepository;
+    this.eventPublisher = eventPublisher;
+    this.persistIntervalMillis = persistIntervalSeconds * 1000L;
+    // With the relay every node serves the same lobbies, so only the lobby_presence table sees all members.
+    this.databaseBacked = "relay".equalsIgnoreCase(brokerMode);
+    for (int i = 0; i < STRIPE_COUNT; i++) {
+      stripes[i] = new Stripe();
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadFromDatabase() {
+    if (databaseBacked) {
+      log.info("Lobby presence engine reads counts and rosters from lobby_presence (relay broker mode)");
+      return;
+    }
+    int loaded = 0;
+    for (LobbyPresence presence : lobbyPresenceRepository.findAll()) {
+      long seenAt = presence.getLastSeenAt() != null ? presence.getLastSeenAt().toEpochMilli() : System.currentTimeMillis();
+      restore(presence.getShowtimeId(), presence.getUserId(), seenAt);
+      loaded++;
+    }
+    log.info("Lobby presence engine loaded {} memberships", loaded);
+  }
+
+  public boolean touch(Long showtimeId, Long userId) {
+    long now = System.currentTimeMillis();
+    while (true) {
+      Roster roster = rosterFor(showtimeId);
+      RosterChange change;
+      synchronized (roster) {
+        if (roster.retired) {
+          continue;
+        }
+        Member member = roster.members.get(userId);
+        if (member == null) {
+          roster.members.put(userId, new Member(now, now));
+          roster.size.increment();
+          showtimesByUser.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(showtimeId);
+          change = roster.advance(showtimeId, userId, true, versions.incrementAndGet());
+        } else {
+          member.lastSeenMillis = now;
+          if (now - member.persistedMillis >= persistIntervalMillis) {
+            pendingFlush.computeIfAbsent(showtimeId, key -> ConcurrentHashMap.newKeySet()).add(userId);
+          }
+          return false;
+        }
+      }
+      publishChange(change);
+      return true;
+    }
+  }
+
+  public boolean remove(Long showtimeId, Long userId) {
+    Roster roster = stripeFor(showtimeId).rosters.get(showtimeId);
+    if (roster == null) {
+      return false;
+    }
+    RosterChange change;
+    synchronized (roster) {
+      if (roster.members.remove(userId) == null) {
+        return false;
+      }
+      roster.size.decrement();
+      change = roster.advance(showtimeId, userId, false, versions.incrementAndGet());
+    }
+    forgetUserShowtime(userId, showtimeId);
+    publishChange(change);
+    Set<Long> pending = pendingFlush.get(showtimeId);
+    if (pending != null) {
+      pending.remove(userId);
+    }
+    return true;
+  }
+
+  public long count(Long showtimeId) {
+    if (databaseBacked) {
+      return lobbyPresenceRepository.countByShowtimeId(showtimeId);
+    }
+    Roster roster = stripeFor(showtimeId).rosters.get(showtimeId);
+    return roster == null ? 0 : roster.size.sum();
+  }
+
+  public RosterSnapshot snapshot(Long showtimeId) {
+    Roster roster = stripeFor(showtimeId).rosters.get(showtimeId);
+    if (databaseBacked) {
+      long sequence = lobbyPresenceRepository.broadcastSequence(showtimeId);
+      return new RosterSnapshot(showtimeId, sequence, lobbyPresenceRepository.findUserIdsByShowtimeId(showtimeId));
+    }
+    if (roster == null) {
+      return new RosterSnapshot(showtimeId, 0, List.of());
+    }
+    synchronized (roster) {
+      return new RosterSnapshot(showtimeId, roster.version, List.copyOf(roster.members.keySet()));
+    }
+  }
+
+  public Set<Long> showtimesForUser(Long userId) {
+    if (databaseBacked) {
+      return Set.copyOf(lobbyPresenceRepository.findShowtimeIdsByUserId(userId));
+    }
+    Set<Long> showtimes = showtimesByUser.get(userId);
+    return showtimes == null ? Set.of() : Set.copyOf(showtimes);
+  }
+
+  public void dropShowtime(Long showtimeId) {
+    Stripe stripe = stripeFor(showtimeId);
+    Roster roster = stripe.rosters.get(showtimeId);
+    if (roster == null) {
+      return;
+    }
+    List<Long> removed;
+    synchronized (roster) {
+      removed = new ArrayList<>(roster.members.keySet());
+      roster.members.clear();
+      roster.size.reset();
+      roster.retired = true;
+      stripe.rosters.remove(showtimeId, roster);
+    }
+    for (Long userId : removed) {
+      forgetUserShowtime(userId, showtimeId);
+    }
+    pendingFlush.remove(showtimeId);
+    eventPublisher.publishEvent(new RosterRetired(showtimeId));
+  }
+
+  public Map<Long, List<Long>> expire(Instant cutoff, Predicate<Long> expiresShowtime) {
+    long cutoffMillis = cutoff.toEpochMilli();
+    Map<Long, List<Long>> expired = new HashMap<>();
+    for (Stripe stripe : stripes) {
+      for (Map.Entry<Long, Roster> entry : stripe.rosters.entrySet()) {
+        Long showtimeId = entry.getKey();
+        Roster roster = entry.getValue();
+        if (!hasStaleMember(roster, cutoffMillis) || !expiresShowtime.test(showtimeId)) {
+          retireIfEmpty(stripe, showtimeId, roster);
+          continue;
+        }
+        List<Long> removed = new ArrayList<>();
+        List<RosterChange> changes = new ArrayList<>();
+        synchronized (roster) {
+          roster.members.entrySet().removeIf(member -> {
+            if (member.getValue().lastSeenMillis < cutoffMillis) {
+              removed.add(member.getKey());
+              return true;
+            }
+            return false;
+          });
+          roster.size.add(-removed.size());
+          for (Long userId : removed) {
+            changes.add(roster.advance(showtimeId, userId, false, versions.incrementAndGet()));
+          }
+        }
+        for (Long userId : removed) {
+          forgetUserShowtime(userId, showtimeId);
+        }
+        changes.forEach(this::publishChange);
+        if (!removed.isEmpty()) {
+          expired.put(showtimeId, removed);
+        }
+        retireIfEmpty(stripe, showtimeId, roster);
+      }
+    }
+    return expired;
+  }
+
+  @Scheduled(fixedDelayString = "${app.lobby.flushIntervalMs:10000}")
+  @Transactional
+  public void flush() {
+    if (pendingFlush.isEmpty()) {
+      return;
+    }
+    Instant flushedAt = Instant.now();
+    for (Long showtimeId : new ArrayList<>(pendingFlush.keySet())) {
+      Set<Long> pending = pendingFlush.remove(showtimeId);
+      if (pending == null || pending.isEmpty()) {
+        continue;
+      }
+      Roster roster = stripeFor(showtimeId).rosters.get(showtimeId);
+      if (roster == null) {
+        continue;
+      }
+      List<Long> userIds = new ArrayList<>();
+      for (Long userId : pending) {
+        if (roster.members.containsKey(userId)) {
+          lobbyPresenceRepository.upsertPresence(showtimeId, userId, flushedAt);
+          userIds.add(userId);
+        }
+      }
+      markPersisted(showtimeId, userIds, flushedAt.toEpochMilli());
+    }
+  }
+
+  // Node-local versions cannot be chained across nodes, so relay mode sends no deltas; clients refetch the
+  // roster when a count update's sequence passes the snapshot's version.
+  private void publishChange(RosterChange change) {
+    if (!databaseBacked) {
+      eventPublisher.publishEvent(change);
+    }
+  }
+
+  private void restore(Long showtimeId, Long userId, long seenAt) {
+    Roster roster = rosterFor(showtimeId);
+    synchronized (roster) {
+      if (roster.members.putIfAbsent(userId, new Member(seenAt, seenAt)) == null) {
+        roster.size.increment();
+        showtimesByUser.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(showtimeId);
+      }
+    }
+  }
+
+  private void markPersisted(Long showtimeId, List<Long> userIds, long persistedAt) {
+    Roster roster = stripeFor(showtimeId).rosters.get(showtimeId);
+    if (roster == null) {
+      return;
+    }
+    for (Long userId : userIds) {
+      Member member = roster.members.get(userId);
+      if (member != null) {
+        member.persistedMillis = persistedAt;
+      }
+    }
+  }
+
+  private boolean hasStaleMember(Roster roster, long cutoffMillis) {
+    for (Member member : roster.members.values()) {
+      if (member.lastSeenMillis < cutoffMillis) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private void retireIfEmpty(Stripe stripe, Long showtimeId, Roster roster) {
+    synchronized (roster) {
+      if (!roster.members.isEmpty() || roster.retired) {
+        return;
+      }
+      roster.retired = true;
+      stripe.rosters.remove(showtimeId, roster);
+    }
+    eventPublisher.publishEvent(new RosterRetired(showtimeId));
+  }
+
+  private void forgetUserShowtime(Long userId, Long showtimeId) {
+    showtimesByUser.computeIfPresent(userId, (key, showtimes) -> {
+      showtimes.remove(showtimeId);
+      return showtimes.isEmpty() ? null : showtimes;
+    });
+  }
+
+  private Roster rosterFor(Long showtimeId) {
+    return stripeFor(showtimeId).rosters.computeIfAbsent(showtimeId, key -> new Roster());
+  }
+
+  private Stripe stripeFor(Long showtimeId) {
+    int hash = Long.hashCode(showtimeId);
+    hash ^= (hash >>> 16);
+    return stripes[hash & (STRIPE_COUNT - 1)];
+  }
+
+  public record RosterChange(Long showtimeId, Long userId, boolean joined, long version, long previousVersion) {}
+
+  public record RosterRetired(Long showtimeId) {}
+
+  public record RosterSnapshot(Long showtimeId, long version, List<Long> userIds) {}
+
+  private static final class Stripe {
+    private final ConcurrentHashMap<Long, Roster> rosters = new ConcurrentHashMap<>();
+  }
+
+  private static final class Roster {
+    private final ConcurrentHashMap<Long, Member> members = new ConcurrentHashMap<>();
+    private final LongAdder size = new LongAdder();
+    private boolean retired;
+    private long version;
+
+    private RosterChange advance(Long showtimeId, Long userId, boolean joined, long nextVersion) {
+      RosterChange change = new RosterChange(showtimeId, userId, joined, nextVersion, version);
+      version = nextVersion;
+      return change;
+    }
+  }
+
+  private static final class Member {
+    private volatile long lastSeenMillis;
+    private volatile long persistedMillis;
+
+    private Member(long lastSeenMillis, long persistedMillis) {
+      this.lastSeenMillis = lastSeenMillis;
+      this.persistedMillis = persistedMillis;
+    }
+  }
+}
@@ -0,0 +1,32 @@
+package com.zingo.app.service;
+
+import com.zingo.app.dto.LobbyDtos.LobbyRosterDelta;
+import com.zingo.app.service.LobbyPresenceEngine.RosterChange;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class LobbyRosterPublisher {
+  public static final String JOIN = "JOIN";
+  public static final String LEAVE = "LEAVE";
+
+  private final SimpMessagingTemplate messagingTemplate;
+
+  public LobbyRosterPublisher(SimpMessagingTemplate messagingTemplate) {
+    this.messagingTemplate = messagingTemplate;
+  }
+
+  // Deltas go to every subscriber, so they carry ids only; profiles come from the block-filtered roster endpoint.
+  @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+  public void onRosterChange(RosterChange change) {
+    LobbyRosterDelta delta = new LobbyRosterDelta(
+        change.showtimeId(),
+        change.joined() ? JOIN : LEAVE,
+        change.version(),
+        change.previousVersion(),
+        change.userId());
+    messagingTemplate.convertAndSend("/topic/lobby." + change.showtimeId() + ".roster", delta);
+  }
+}
@@ -1,21 +1,24 @@
 package com.zingo.app.service;
 
 import com.zingo.app.dto.LobbyDtos.LobbyPresenceUpdate;
+import com.zingo.app.dto.LobbyDtos.LobbyRosterSnapshot;
 import com.zingo.app.dto.LobbyDtos.LobbyUserDto;
 import com.zingo.app.dto.LobbyDtos.LobbyUsersResponse;
 import com.zingo.app.dto.LobbyDtos.ActiveLobbyDto;
 import com.zingo.app.entity.Event;
 import com.zingo.app.entity.EventType;
-import com.zingo.app.entity.LobbyPresence;
-import com.zingo.app.entity.Profile;
 import com.zingo.app.entity.Showtime;
 import com.zingo.app.entity.Venue;
+import com.zingo.app.exception.BadRequestException;
 import com.zingo.app.repository.EventRepository;
 import com.zingo.app.repository.LobbyPresenceRepository;
-import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.LobbyUserRow;
+import com.zingo.app.repository.ProfileSummary;
 import com.zingo.app.repository.ShowtimeRepository;
 import com.zingo.app.repository.VenueRepository;
 import com.zingo.app.security.SecurityUtil;
+import com.zingo.app.service.LobbyPresenceEngine.RosterRetired;
+import com.zingo.app.service.LobbyPresenceEngine.RosterSnapshot;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -25,48 +28,55 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class LobbyService {
+  private static final int MAX_LOBBY_PAGE_SIZE = 100;
+
   private final LobbyPresenceRepository lobbyPresenceRepository;
-  private final ProfileRepository profileRepository;
+  private final LobbyPresenceEngine presenceEngine;
+  private final LobbyBroadcastCoalescer broadcastCoalescer;
+  private final ProfileSummaryCache profileSummaryCache;
+  private final AvatarUrls avatarUrls;
   private final ShowtimeRepository showtimeRepository;
   private final EventRepository eventRepository;
   private final VenueRepository venueRepository;
   private final SafetyService safetyService;
-  private final SimpMessagingTemplate messagingTemplate;
   private final long presenceTtlMinutes;
+  private final Map<Long, ShowtimeContext> showtimeContexts = new ConcurrentHashMap<>();
 
-  public LobbyService(LobbyPresenceRepository lobbyPresenceRepository, ProfileRepository profileRepository,
+  public LobbyService(LobbyPresenceRepository lobbyPresenceRepository, LobbyPresenceEngine presenceEngine,
+      LobbyBroadcastCoalescer broadcastCoalescer, ProfileSummaryCache profileSummaryCache, AvatarUrls avatarUrls,
       ShowtimeRepository showtimeRepository, EventRepository eventRepository, VenueRepository venueRepository,
-      SafetyService safetyService, SimpMessagingTemplate messagingTemplate,
+      SafetyService safetyService,
       @Value("${app.lobby.presenceTtlMinutes}") long presenceTtlMinutes) {
     this.lobbyPresenceRepository = lobbyPresenceRepository;
-    this.profileRepository = profileRepository;
+    this.presenceEngine = presenceEngine;
+    this.broadcastCoalescer = broadcastCoalescer;
+    this.profileSummaryCache = profileSummaryCache;
+    this.avatarUrls = avatarUrls;
     this.showtimeRepository = showtimeRepository;
     this.eventRepository = eventRepository;
     this.venueRepository = venueRepository;
     this.safetyService = safetyService;
-    this.messagingTemplate = messagingTemplate;
     this.presenceTtlMinutes = presenceTtlMinutes;
   }
 
   @Transactional
   public LobbyPresenceUpdate join(Long showtimeId) {
     Long userId = SecurityUtil.currentUserId();
-    lobbyPresenceRepository.upsertPresence(showtimeId, userId, Instant.now());
-
-    long count = lobbyPresenceRepository.countByShowtimeId(showtimeId);
-    LobbyPresenceUpdate update = new LobbyPresenceUpdate(showtimeId, count, Instant.now());
-    messagingTemplate.convertAndSend("/topic/lobby." + showtimeId, update);
-    return update;
+    if (presenceEngine.touch(showtimeId, userId)) {
+      lobbyPresenceRepository.upsertPresence(showtimeId, userId, Instant.now());
+      broadcastCoalescer.markDirty(showtimeId);
+    }
+    return broadcastCoalescer.current(showtimeId);
   }
 
   @Transactional
@@ -77,11 +87,11 @@ public class LobbyService {
   @Transactional
   public LobbyPresenceUpdate leave(Long showtimeId) {
     Long userId = SecurityUtil.currentUserId();
-    lobbyPresenceRepository.deleteByShowtimeIdAndUserId(showtimeId, userId);
-    long count = lobbyPresenceRepository.countByShowtimeId(showtimeId);
-    LobbyPresenceUpdate update = new LobbyPresenceUpdate(showtimeId, count, Instant.now());
-    messagingTemplate.convertAndSend("/topic/lobby." + showtimeId, update);
-    return update;
+    if (presenceEngine.remove(showtimeId, userId)) {
+      lobbyPresenceRepository.deleteByShowtimeIdAndUserId(showtimeId, userId);
+      broadcastCoalescer.markDirty(showtimeId);
+    }
+    return broadcastCoalescer.current(showtimeId);
   }
 
   @Transactional
@@ -94,61 +104,75 @@ public class LobbyService {
       if (userId == null) {
         continue;
       }
-      changed = lobbyPresenceRepository.deleteByShowtimeIdAndUserId(showtimeId, userId) > 0 || changed;
+      if (presenceEngine.remove(showtimeId, userId)) {
+        lobbyPresenceRepository.deleteByShowtimeIdAndUserId(showtimeId, userId);
+        changed = true;
+      }
     }
     if (changed) {
-      long count = lobbyPresenceRepository.countByShowtimeId(showtimeId);
-      LobbyPresenceUpdate update = new LobbyPresenceUpdate(showtimeId, count, Instant.now());
-      messagingTemplate.convertAndSend("/topic/lobby." + showtimeId, update);
+      broadcastCoalescer.markDirty(showtimeId);
     }
   }
 
-  public LobbyUsersResponse listUsers(Long showtimeId, int page, int size) {
+  public LobbyUsersResponse listUsers(Long showtimeId, String cursor, int size) {
     Long userId = SecurityUtil.currentUserId();
-    Page<LobbyPresence> presencePage = lobbyPresenceRepository.findByShowtimeId(showtimeId, PageRequest.of(page, size));
-    Set<Long> blockedIds = safetyService.blockedIdsForUser(userId);
+    PageRequest limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_LOBBY_PAGE_SIZE)));
+    List<LobbyUserRow> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = lobbyPresenceRepository.findVisibleUsers(showtimeId, userId, limit);
+    } else {
+      LobbyCursor position = LobbyCursor.parse(cursor);
+      rows = lobbyPresenceRepository.findVisibleUsersAfter(showtimeId, userId, position.lastSeenAt(),
+          position.userId(), limit);
+    }
 
-    String eventType = null;
-    Showtime showtime = showtimeRepository.findById(showtimeId).orElse(null);
-    if (showtime != null) {
-      Event event = eventRepository.findById(showtime.getEventId()).orElse(null);
-      if (event != null && event.getType() != null) {
-        eventType = event.getType().name();
-      }
+    List<LobbyUserDto> users = new ArrayList<>();
+    for (LobbyUserRow row : rows) {
+      users.add(new LobbyUserDto(
+          row.userId(),
+          row.displayName(),
+          avatarUrls.listUrl(row.avatarUrl()),
+          row.bioShort(),
+          row.personalityTags()));
     }
+    String nextCursor = null;
+    if (rows.size() == limit.getPageSize()) {
+      LobbyUserRow last = rows.get(rows.size() - 1);
+      nextCursor = new LobbyCursor(last.lastSeenAt(), last.userId()).encode();
+    }
+    long total = presenceEngine.count(showtimeId);
+    return new LobbyUsersResponse(showtimeId, total, users, eventTypeFor(showtimeId), nextCursor);
+  }
+
+  public LobbyRosterSnapshot roster(Long showtimeId, Collection<Long> onlyUserIds) {
+    Long userId = SecurityUtil.currentUserId();
+    RosterSnapshot snapshot = presenceEngine.snapshot(showtimeId);
+    Set<Long> blockedIds = safetyService.blockedIdsForUser(userId);
+    Set<Long> requested = onlyUserIds == null ? null : Set.copyOf(onlyUserIds);
+    List<Long> visibleIds = snapshot.userIds().stream()
+        .filter(id -> !id.equals(userId) && !blockedIds.contains(id))
+        .filter(id -> requested == null || requested.contains(id))
+        .toList();
 
     List<LobbyUserDto> users = new ArrayList<>();
-    for (LobbyPresence presence : presencePage.getContent()) {
-      Long otherUserId = presence.getUserId();
-      if (otherUserId.equals(userId)) {
-        continue;
-      }
-      if (blockedIds.contains(otherUserId)) {
-        continue;
-      }
-      Profile profile = profileRepository.findById(otherUserId).orElse(null);
-      if (profile == null) {
-        continue;
-      }
+    for (ProfileSummary profile : profileSummaryCache.getAll(visibleIds).values()) {
       users.add(new LobbyUserDto(
-          profile.getUserId(),
-          profile.getDisplayName(),
-          profile.getAvatarUrl(),
-          profile.getBioShort(),
-          profile.getPersonalityTags()));
-    }
-    long total = lobbyPresenceRepository.countByShowtimeId(showtimeId);
-    return new LobbyUsersResponse(showtimeId, total, users, eventType);
+          profile.userId(),
+          profile.displayName(),
+          profile.avatarUrl(),
+          profile.bioShort(),
+          profile.personalityTags()));
+    }
+    return new LobbyRosterSnapshot(showtimeId, snapshot.version(), users, eventTypeFor(showtimeId));
   }
 
   public List<ActiveLobbyDto> listActiveForCurrentUser() {
     Long userId = SecurityUtil.currentUserId();
-    List<LobbyPresence> presences = lobbyPresenceRepository.findByUserId(userId);
-    if (presences.isEmpty()) {
+    List<Long> showtimeIds = List.copyOf(presenceEngine.showtimesForUser(userId));
+    if (showtimeIds.isEmpty()) {
       return List.of();
     }
 
-    List<Long> showtimeIds = presences.stream().map(LobbyPresence::getShowtimeId).distinct().toList();
     Map<Long, Showtime> showtimeById = new HashMap<>();
     for (Showtime showtime : showtimeRepository.findAllById(showtimeIds)) {
       showtimeById.put(showtime.getId(), showtime);
@@ -180,7 +204,7 @@ public class LobbyService {
           event != null ? event.getTitle() : null,
           venue != null ? venue.getName() : null,
           showtime.getStartsAt(),
-          lobbyPresenceRepository.countByShowtimeId(showtimeId)));
+          presenceEngine.count(showtimeId)));
     }
     out.sort(Comparator.comparing(ActiveLobbyDto::startsAt, Comparator.nullsLast(Comparator.naturalOrder())));
     return out;
@@ -190,6 +214,58 @@ public class LobbyService {
   @Transactional
   public void cleanupStale() {
     Instant cutoff = Instant.now().minus(presenceTtlMinutes, ChronoUnit.MINUTES);
+    Map<Long, List<Long>> expired = presenceEngine.expire(cutoff, showtimeId -> !isTrekShowtime(showtimeId));
     lobbyPresenceRepository.deleteStaleNonTrekPresences(cutoff, EventType.TREK.name());
+    expired.keySet().forEach(broadcastCoalescer::markDirty);
+    showtimeContexts.keySet().removeIf(showtimeId -> presenceEngine.count(showtimeId) == 0);
+  }
+
+  @EventListener
+  public void onRosterRetired(RosterRetired retired) {
+    showtimeContexts.remove(retired.showtimeId());
   }
+
+  private String eventTypeFor(Long showtimeId) {
+    ShowtimeContext context = showtimeContext(showtimeId);
+    return context != null ? context.eventType() : null;
+  }
+
+  private boolean isTrekShowtime(Long showtimeId) {
+    return EventType.TREK.name().equals(eventTypeFor(showtimeId));
+  }
+
+  private ShowtimeContext showtimeContext(Long showtimeId) {
+    return showtimeContexts.computeIfAbsent(showtimeId, id -> {
+      Showtime showtime = showtimeRepository.findById(id).orElse(null);
+      if (showtime == null) {
+        return null;
+      }
+      Event event = eventRepository.findById(showtime.getEventId()).orElse(null);
+      String eventType = event != null && event.getType() != null ? event.getType().name() : null;
+      return new ShowtimeContext(eventType);
+    });
+  }
+
+  private record ShowtimeContext(String eventType) {}
+
+  private record LobbyCursor(Instant lastSeenAt, Long userId) {
+    private static LobbyCursor parse(String cursor) {
+      int separator = cursor.indexOf('_');
+      if (separator <= 0) {
+        throw new BadRequestException("Invalid lobby cursor");
+      }
+      try {
+        return new LobbyCursor(
+            Instant.ofEpochMilli(Long.parseLong(cursor.substring(0, separator))),
+            Long.parseLong(cursor.substring(separator + 1)));
+      } catch (NumberFormatException ex) {
+        throw new BadRequestException("Invalid lobby cursor");
+      }
+    }
+
+    private String encode() {
+      return lastSeenAt.toEpochMilli() + "_" + userId;
+    }
+  }
+
 }
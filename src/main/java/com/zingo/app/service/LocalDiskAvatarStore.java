@@ -0,0 +1,103 @@
+package com.zingo.app.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "app.avatars.store", havingValue = "local", matchIfMissing = true)
+public class LocalDiskAvatarStore implements AvatarStore {
+  private static final Map<String, String> EXTENSIONS = Map.of(
+      "image/png", "png",
+      "image/jpeg", "jpg",
+      "image/gif", "gif",
+      "image/webp", "webp");
+
+  private final Path root;
+
+  public LocalDiskAvatarStore(@Value("${app.avatars.dir:data/avatars}") String dir) {
+    this.root = Paths.get(dir).toAbsolutePath().normalize();
+  }
+
+  @Override
+  public String put(byte[] content, String contentType) {
+    String extension = EXTENSIONS.get(contentType);
+    if (extension == null) {
+      throw new IllegalArgumentException("Unsupported avatar content type: " + contentType);
+    }
+    String hash = sha256(content);
+    write(hash, hash, extension, content);
+    return hash;
+  }
+
+  @Override
+  public Optional<StoredAvatar> get(String hash) {
+    return read(hash, hash);
+  }
+
+  @Override
+  public void putVariant(String hash, int size, byte[] content, String contentType) {
+    String extension = EXTENSIONS.get(contentType);
+    if (extension == null) {
+      throw new IllegalArgumentException("Unsupported avatar content type: " + contentType);
+    }
+    write(hash, hash + "-" + size, extension, content);
+  }
+
+  @Override
+  public Optional<StoredAvatar> getVariant(String hash, int size) {
+    return read(hash, hash + "-" + size);
+  }
+
+  private void write(String hash, String name, String extension, byte[] content) {
+    Path target = pathFor(hash, name, extension);
+    if (Files.exists(target)) {
+      return;
+    }
+    try {
+      Files.createDirectories(target.getParent());
+      Path temp = Files.createTempFile(target.getParent(), name, ".tmp");
+      Files.write(temp, content);
+      Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException exception) {
+      throw new IllegalStateException("Failed to store avatar " + name, exception);
+    }
+  }
+
+  private Optional<StoredAvatar> read(String hash, String name) {
+    for (Map.Entry<String, String> entry : EXTENSIONS.entrySet()) {
+      Path path = pathFor(hash, name, entry.getValue());
+      if (!Files.exists(path)) {
+        continue;
+      }
+      try {
+        return Optional.of(new StoredAvatar(hash, entry.getKey(), Files.readAllBytes(path)));
+      } catch (IOException exception) {
+        throw new IllegalStateException("Failed to read avatar " + name, exception);
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Path pathFor(String hash, String name, String extension) {
+    return root.resolve(hash.substring(0, 2)).resolve(name + "." + extension);
+  }
+
+  private String sha256(byte[] content) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    } catch (NoSuchAlgorithmException exception) {
+      throw new IllegalStateException("SHA-256 not available", exception);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Message;
+import java.util.Base64;
+
+public final class MessagePayloads {
+  public static final byte FORMAT_TEXT = 0;
+  public static final byte FORMAT_E2EE_V1 = 1;
+  public static final int MAX_CIPHERTEXT_BYTES = 49152;
+  private static final String E2EE_V1_PREFIX = "enc:v1:";
+
+  private MessagePayloads() {
+  }
+
+  public static void write(Message message, String wireText) {
+    byte[] ciphertext = decodeCiphertext(wireText);
+    if (ciphertext == null) {
+      message.setPayloadFormat(FORMAT_TEXT);
+      message.setText(wireText);
+      message.setCiphertext(null);
+      return;
+    }
+    message.setPayloadFormat(FORMAT_E2EE_V1);
+    message.setText("");
+    message.setCiphertext(ciphertext);
+  }
+
+  public static String wireText(Message message) {
+    if (message.getPayloadFormat() == FORMAT_E2EE_V1 && message.getCiphertext() != null) {
+      return E2EE_V1_PREFIX + Base64.getEncoder().encodeToString(message.getCiphertext());
+    }
+    return message.getText();
+  }
+
+  public static boolean isEncrypted(Message message) {
+    if (message.getPayloadFormat() == FORMAT_E2EE_V1) {
+      return true;
+    }
+    return message.getText() != null && message.getText().startsWith(E2EE_V1_PREFIX);
+  }
+
+  static byte[] decodeCiphertext(String wireText) {
+    if (wireText == null || !wireText.startsWith(E2EE_V1_PREFIX)) {
+      return null;
+    }
+    String encoded = wireText.substring(E2EE_V1_PREFIX.length());
+    byte[] decoded;
+    try {
+      decoded = Base64.getDecoder().decode(encoded);
+    } catch (IllegalArgumentException exception) {
+      return null;
+    }
+    if (decoded.length == 0 || decoded.length > MAX_CIPHERTEXT_BYTES
+        || !Base64.getEncoder().encodeToString(decoded).equals(encoded)) {
+      return null;
+    }
+    return decoded;
+  }
+}
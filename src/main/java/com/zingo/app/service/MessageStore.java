@@ -0,0 +1,29 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Message;
+import java.util.List;
+import java.util.Optional;
+
+public interface MessageStore {
+  Message append(Message message);
+
+  Optional<Message> findById(Long conversationId, Long messageId);
+
+  Optional<Message> findLast(Long conversationId);
+
+  List<Message> findLatest(Long conversationId, int limit);
+
+  List<Message> findBefore(Message cursor, int limit);
+
+  List<Message> findAfter(Message cursor, int limit);
+
+  List<Message> findSince(Long conversationId, Long afterId, int limit);
+
+  Optional<Message> findByClientMessageId(Long conversationId, Long senderId, String clientMessageId);
+
+  long countBetween(Long conversationId, Long afterId, Long throughId, Long excludeSenderId, int limit);
+
+  void moveConversation(Long sourceConversationId, Long targetConversationId);
+
+  void deleteConversation(Long conversationId);
+}
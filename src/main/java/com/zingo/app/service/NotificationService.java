@@ -1,45 +1,63 @@
 package com.zingo.app.service;
 
 import com.zingo.app.dto.NotificationDtos.NotificationDto;
+import com.zingo.app.dto.NotificationDtos.NotificationPage;
 import com.zingo.app.entity.Event;
 import com.zingo.app.entity.Notification;
 import com.zingo.app.entity.NotificationType;
-import com.zingo.app.entity.Profile;
+import com.zingo.app.entity.NotificationUnreadCounter;
 import com.zingo.app.entity.Showtime;
+import com.zingo.app.exception.BadRequestException;
+import com.zingo.app.exception.NotFoundException;
 import com.zingo.app.repository.EventRepository;
 import com.zingo.app.repository.NotificationRepository;
-import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.NotificationUnreadCounterRepository;
+import com.zingo.app.repository.ProfileSummary;
 import com.zingo.app.repository.ShowtimeRepository;
+import com.zingo.app.websocket.WebSocketSessionRegistry;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 @Service
 public class NotificationService {
+  private static final int MAX_PAGE_SIZE = 100;
+
   private final NotificationRepository notificationRepository;
+  private final NotificationUnreadCounterRepository unreadCounterRepository;
   private final ShowtimeRepository showtimeRepository;
   private final EventRepository eventRepository;
-  private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
   private final SimpMessagingTemplate messagingTemplate;
-  private final PushDeliveryService pushDeliveryService;
+  private final OutboxService outboxService;
+  private final WebSocketSessionRegistry sessionRegistry;
 
   public NotificationService(
       NotificationRepository notificationRepository,
+      NotificationUnreadCounterRepository unreadCounterRepository,
       ShowtimeRepository showtimeRepository,
       EventRepository eventRepository,
-      ProfileRepository profileRepository,
+      ProfileSummaryCache profileSummaryCache,
       SimpMessagingTemplate messagingTemplate,
-      PushDeliveryService pushDeliveryService) {
+      OutboxService outboxService,
+      WebSocketSessionRegistry sessionRegistry) {
     this.notificationRepository = notificationRepository;
+    this.unreadCounterRepository = unreadCounterRepository;
     this.showtimeRepository = showtimeRepository;
     this.eventRepository = eventRepository;
-    this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
     this.messagingTemplate = messagingTemplate;
-    this.pushDeliveryService = pushDeliveryService;
+    this.outboxService = outboxService;
+    this.sessionRegistry = sessionRegistry;
   }
 
   @Transactional
@@ -49,41 +67,109 @@ public class NotificationService {
     notification.setType(type);
     notification.setPayloadJson(payload);
     notification = notificationRepository.save(notification);
+    unreadCounterRepository.increment(userId, notification.getCreatedAt());
 
     NotificationDto dto = toDto(notification);
-    messagingTemplate.convertAndSendToUser(String.valueOf(userId), "/queue/notifications", dto);
-    pushDeliveryService.sendToUser(userId, buildTitle(type, dto.payload()), buildBody(type, dto.payload()),
-        buildData(type, dto.payload(), dto.id()));
+    outboxService.afterCommit(
+        () -> messagingTemplate.convertAndSendToUser(String.valueOf(userId), "/queue/notifications", dto));
+    if (!sessionRegistry.receivesNotifications(userId)) {
+      outboxService.enqueuePush(userId, buildTitle(type, dto.payload()), buildBody(type, dto.payload()),
+          buildData(type, dto.payload(), dto.id()));
+    }
     return dto;
   }
 
-  public List<NotificationDto> listForUser(Long userId) {
-    return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId).stream()
-        .map(this::toDto)
-        .toList();
+  public NotificationPage listForUser(Long userId, String cursor, int size) {
+    PageRequest limit = PageRequest.of(0, Math.max(1, Math.min(size, MAX_PAGE_SIZE)));
+    List<Notification> rows;
+    if (cursor == null || cursor.isBlank()) {
+      rows = notificationRepository.findByUserIdOrderByCreatedAtDescIdDesc(userId, limit);
+    } else {
+      NotificationCursor position = NotificationCursor.parse(cursor);
+      rows = notificationRepository.findPageBefore(userId, position.createdAt(), position.id(), limit);
+    }
+    String nextCursor = null;
+    if (rows.size() == limit.getPageSize()) {
+      Notification last = rows.get(rows.size() - 1);
+      nextCursor = new NotificationCursor(last.getCreatedAt(), last.getId()).encode();
+    }
+    return new NotificationPage(toDtos(rows), nextCursor);
+  }
+
+  public long unreadCount(Long userId) {
+    return unreadCounterRepository.findById(userId)
+        .map(NotificationUnreadCounter::getUnreadCount)
+        .orElse(0);
   }
 
   @Transactional
   public NotificationDto markRead(Long userId, Long id) {
-    Notification notification = notificationRepository.findByIdAndUserId(id, userId)
-        .orElseThrow(() -> new com.zingo.app.exception.NotFoundException("Notification not found"));
-    if (notification.getReadAt() == null) {
-      notification.setReadAt(Instant.now());
+    Instant now = Instant.now();
+    if (notificationRepository.markReadIfUnread(id, userId, now) > 0) {
+      unreadCounterRepository.decrement(userId, 1, now);
     }
-    return toDto(notificationRepository.save(notification));
+    Notification notification = notificationRepository.findByIdAndUserId(id, userId)
+        .orElseThrow(() -> new NotFoundException("Notification not found"));
+    return toDto(notification);
   }
 
   public NotificationDto toDto(Notification notification) {
-    Map<String, Object> payload = enrichPayload(notification.getType(), notification.getPayloadJson());
-    return new NotificationDto(
-        notification.getId(),
-        notification.getType(),
-        payload,
-        notification.getReadAt(),
-        notification.getCreatedAt());
+    return toDtos(List.of(notification)).get(0);
   }
 
-  private Map<String, Object> enrichPayload(NotificationType type, Map<String, Object> payload) {
+  private List<NotificationDto> toDtos(List<Notification> notifications) {
+    EnrichmentContext context = loadEnrichmentContext(notifications);
+    List<NotificationDto> result = new ArrayList<>(notifications.size());
+    for (Notification notification : notifications) {
+      result.add(new NotificationDto(
+          notification.getId(),
+          notification.getType(),
+          enrichPayload(notification.getType(), notification.getPayloadJson(), context),
+          notification.getReadAt(),
+          notification.getCreatedAt()));
+    }
+    return result;
+  }
+
+  private EnrichmentContext loadEnrichmentContext(List<Notification> notifications) {
+    Set<Long> showtimeIds = new HashSet<>();
+    Set<Long> fromUserIds = new HashSet<>();
+    for (Notification notification : notifications) {
+      Map<String, Object> payload = notification.getPayloadJson();
+      if (notification.getType() != NotificationType.INVITE || payload == null) {
+        continue;
+      }
+      Long showtimeId = asLong(payload.get("showtimeId"));
+      if (showtimeId != null && (payload.get("startsAt") == null || payload.get("eventTitle") == null)) {
+        showtimeIds.add(showtimeId);
+      }
+      Long fromUserId = asLong(payload.get("fromUserId"));
+      if (fromUserId != null && (payload.get("fromDisplayName") == null || payload.get("fromAvatarUrl") == null)) {
+        fromUserIds.add(fromUserId);
+      }
+    }
+    if (showtimeIds.isEmpty() && fromUserIds.isEmpty()) {
+      return EnrichmentContext.EMPTY;
+    }
+
+    Map<Long, Showtime> showtimes = new HashMap<>();
+    Set<Long> eventIds = new HashSet<>();
+    for (Showtime showtime : showtimeRepository.findAllById(showtimeIds)) {
+      showtimes.put(showtime.getId(), showtime);
+      if (showtime.getEventId() != null) {
+        eventIds.add(showtime.getEventId());
+      }
+    }
+    Map<Long, Event> events = new HashMap<>();
+    for (Event event : eventRepository.findAllById(eventIds)) {
+      events.put(event.getId(), event);
+    }
+    Map<Long, ProfileSummary> profiles = fromUserIds.isEmpty() ? Map.of() : profileSummaryCache.getAll(fromUserIds);
+    return new EnrichmentContext(showtimes, events, profiles);
+  }
+
+  private Map<String, Object> enrichPayload(NotificationType type, Map<String, Object> payload,
+      EnrichmentContext context) {
     if (payload == null) {
       return null;
     }
@@ -94,31 +180,27 @@ public class NotificationService {
     Map<String, Object> enriched = new LinkedHashMap<>(payload);
 
     Long showtimeId = asLong(enriched.get("showtimeId"));
-    if (showtimeId != null) {
-      Showtime showtime = showtimeRepository.findById(showtimeId).orElse(null);
-      if (showtime != null) {
-        if (!enriched.containsKey("startsAt") || enriched.get("startsAt") == null) {
-          enriched.put("startsAt", showtime.getStartsAt() != null ? showtime.getStartsAt().toString() : null);
-        }
-        if (!enriched.containsKey("eventTitle") || enriched.get("eventTitle") == null) {
-          Event event = eventRepository.findById(showtime.getEventId()).orElse(null);
-          if (event != null) {
-            enriched.put("eventTitle", event.getTitle());
-          }
+    Showtime showtime = showtimeId != null ? context.showtimes().get(showtimeId) : null;
+    if (showtime != null) {
+      if (enriched.get("startsAt") == null) {
+        enriched.put("startsAt", showtime.getStartsAt() != null ? showtime.getStartsAt().toString() : null);
+      }
+      if (enriched.get("eventTitle") == null) {
+        Event event = context.events().get(showtime.getEventId());
+        if (event != null) {
+          enriched.put("eventTitle", event.getTitle());
         }
       }
     }
 
     Long fromUserId = asLong(enriched.get("fromUserId"));
-    if (fromUserId != null) {
-      Profile fromProfile = profileRepository.findById(fromUserId).orElse(null);
-      if (fromProfile != null) {
-        if (!enriched.containsKey("fromDisplayName") || enriched.get("fromDisplayName") == null) {
-          enriched.put("fromDisplayName", fromProfile.getDisplayName());
-        }
-        if (!enriched.containsKey("fromAvatarUrl") || enriched.get("fromAvatarUrl") == null) {
-          enriched.put("fromAvatarUrl", fromProfile.getAvatarUrl());
-        }
+    ProfileSummary fromProfile = fromUserId != null ? context.profiles().get(fromUserId) : null;
+    if (fromProfile != null) {
+      if (enriched.get("fromDisplayName") == null) {
+        enriched.put("fromDisplayName", fromProfile.displayName());
+      }
+      if (enriched.get("fromAvatarUrl") == null) {
+        enriched.put("fromAvatarUrl", fromProfile.avatarUrl());
       }
     }
     return enriched;
@@ -192,4 +274,29 @@ public class NotificationService {
     }
     return data;
   }
+
+  private record EnrichmentContext(Map<Long, Showtime> showtimes, Map<Long, Event> events,
+      Map<Long, ProfileSummary> profiles) {
+    private static final EnrichmentContext EMPTY = new EnrichmentContext(Map.of(), Map.of(), Map.of());
+  }
+
+  private record NotificationCursor(Instant createdAt, Long id) {
+    private static NotificationCursor parse(String cursor) {
+      int separator = cursor.indexOf('_');
+      if (separator <= 0) {
+        throw new BadRequestException("Invalid notification cursor");
+      }
+      try {
+        return new NotificationCursor(
+            Instant.ofEpochMilli(Long.parseLong(cursor.substring(0, separator))),
+            Long.parseLong(cursor.substring(separator + 1)));
+      } catch (NumberFormatException ex) {
+        throw new BadRequestException("Invalid notification cursor");
+      }
+    }
+
+    private String encode() {
+      return createdAt.toEpochMilli() + "_" + id;
+    }
+  }
 }
@@ -0,0 +1,189 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.OutboxEvent;
+import com.zingo.app.service.PushDeliveryService.PushResult;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Component
+public class OutboxDispatcher {
+  private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+  private final OutboxService outboxService;
+  private final PushDeliveryService pushDeliveryService;
+  private final ChatFanoutService chatFanoutService;
+  private final int batchSize;
+  private final ExecutorService executor;
+  private final ThreadPoolExecutor completionExecutor;
+  private final AtomicBoolean drainQueued = new AtomicBoolean();
+  private final ReentrantLock drainLock = new ReentrantLock();
+
+  public OutboxDispatcher(
+      OutboxService outboxService,
+      PushDeliveryService pushDeliveryService,
+      ChatFanoutService chatFanoutService,
+      @Value("${app.outbox.batchSize:100}") int batchSize,
+      @Value("${app.outbox.completionThreads:2}") int completionThreads,
+      @Value("${app.outbox.completionQueueSize:4096}") int completionQueueSize) {
+    this.outboxService = outboxService;
+    this.pushDeliveryService = pushDeliveryService;
+    this.chatFanoutService = chatFanoutService;
+    this.batchSize = batchSize;
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "outbox-dispatcher");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.completionExecutor = new ThreadPoolExecutor(completionThreads, completionThreads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(completionQueueSize), runnable -> {
+          Thread thread = new Thread(runnable, "outbox-completion");
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    this.completionExecutor.allowCoreThreadTimeOut(true);
+  }
+
+  @TransactionalEventListener
+  public void onEnqueued(OutboxService.OutboxEnqueuedEvent event) {
+    if (drainQueued.compareAndSet(false, true)) {
+      executor.execute(() -> {
+        drainQueued.set(false);
+        drain();
+      });
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.outbox.pollIntervalMs:5000}")
+  public void drain() {
+    if (!drainLock.tryLock()) {
+      return;
+    }
+    try {
+      while (true) {
+        List<OutboxEvent> batch = outboxService.claimDue(batchSize);
+        for (OutboxEvent event : batch) {
+          dispatch(event);
+        }
+        if (batch.size() < batchSize) {
+          return;
+        }
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Outbox drain failed", ex);
+    } finally {
+      drainLock.unlock();
+    }
+  }
+
+  private void dispatch(OutboxEvent event) {
+    CompletableFuture<PushResult> delivery;
+    try {
+      delivery = switch (event.getEventType()) {
+        case PUSH -> deliverPush(event.getPayloadJson());
+        case CHAT_FANOUT -> deliverChatFanout(event.getPayloadJson());
+      };
+    } catch (RuntimeException ex) {
+      delivery = CompletableFuture.failedFuture(ex);
+    }
+    delivery.whenCompleteAsync((result, failure) -> complete(event, result, failure), completionExecutor)
+        .exceptionally(ex -> {
+          if (ex instanceof RejectedExecutionException || ex.getCause() instanceof RejectedExecutionException) {
+            log.warn("Outbox completion queue full, event {} will be retried after its lease", event.getId());
+          }
+          return null;
+        });
+  }
+
+  private void complete(OutboxEvent event, PushResult result, Throwable failure) {
+    try {
+      if (failure != null) {
+        log.warn("Outbox event {} ({}) failed on attempt {}", event.getId(), event.getEventType(), event.getAttempts(),
+            failure);
+        outboxService.markFailed(event.getId(), failure.getMessage());
+      } else if (result.delivered()) {
+        outboxService.markDelivered(event.getId());
+      } else {
+        outboxService.markFailed(event.getId(), "Delivery failed for " + result.retryTokens().size() + " tokens",
+            result.retryTokens());
+      }
+    } catch (RuntimeException ex) {
+      log.warn("Failed to record outcome of outbox event {}", event.getId(), ex);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<PushResult> deliverPush(Map<String, Object> payload) {
+    Object data = payload.get("data");
+    Map<String, Object> dataMap = data instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    List<String> tokens = retryTokens(payload);
+    if (tokens == null) {
+      tokens = stringList(payload.get("tokens"));
+    }
+    if (tokens != null) {
+      return pushDeliveryService.sendToTokens(tokens, (String) payload.get("title"), (String) payload.get("body"),
+          dataMap, (String) payload.get("collapseKey"));
+    }
+    if (!(payload.get("userId") instanceof Number userId)) {
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
+    }
+    return pushDeliveryService.sendToUser(
+        userId.longValue(),
+        (String) payload.get("title"),
+        (String) payload.get("body"),
+        dataMap);
+  }
+
+  @SuppressWarnings("unchecked")
+  private CompletableFuture<PushResult> deliverChatFanout(Map<String, Object> payload) {
+    if (!(payload.get("conversationId") instanceof Number conversationId)
+        || !(payload.get("senderId") instanceof Number senderId)) {
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
+    }
+    Object data = payload.get("data");
+    Map<String, Object> dataMap = data instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    List<String> retryTokens = retryTokens(payload);
+    if (retryTokens != null) {
+      return pushDeliveryService.sendToTokens(retryTokens, (String) payload.get("title"),
+          (String) payload.get("body"), dataMap, PushDigestService.collapseKey(conversationId.longValue()));
+    }
+    return chatFanoutService.deliver(
+        conversationId.longValue(),
+        senderId.longValue(),
+        (String) payload.get("title"),
+        (String) payload.get("body"),
+        dataMap);
+  }
+
+  private List<String> retryTokens(Map<String, Object> payload) {
+    return stringList(payload.get(OutboxService.RETRY_TOKENS_KEY));
+  }
+
+  private List<String> stringList(Object value) {
+    if (!(value instanceof List<?> values)) {
+      return null;
+    }
+    return values.stream().map(String::valueOf).toList();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+    completionExecutor.shutdown();
+  }
+}
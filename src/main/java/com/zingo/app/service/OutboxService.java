@@ -0,0 +1,162 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.OutboxEvent;
+import com.zingo.app.entity.OutboxEventType;
+import com.zingo.app.entity.OutboxStatus;
+import com.zingo.app.repository.OutboxEventRepository;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Service
+public class OutboxService {
+  public static final String RETRY_TOKENS_KEY = "retryTokens";
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final long leaseSeconds;
+  private final int maxAttempts;
+  private final long baseBackoffSeconds;
+  private final long maxBackoffSeconds;
+
+  public OutboxService(
+      OutboxEventRepository outboxEventRepository,
+      ApplicationEventPublisher eventPublisher,
+      @Value("${app.outbox.leaseSeconds:60}") long leaseSeconds,
+      @Value("${app.outbox.maxAttempts:8}") int maxAttempts,
+      @Value("${app.outbox.baseBackoffSeconds:5}") long baseBackoffSeconds,
+      @Value("${app.outbox.maxBackoffSeconds:900}") long maxBackoffSeconds) {
+    this.outboxEventRepository = outboxEventRepository;
+    this.eventPublisher = eventPublisher;
+    this.leaseSeconds = leaseSeconds;
+    this.maxAttempts = maxAttempts;
+    this.baseBackoffSeconds = baseBackoffSeconds;
+    this.maxBackoffSeconds = maxBackoffSeconds;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueuePush(Long userId, String title, String body, Map<String, Object> data) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("userId", userId);
+    payload.put("title", title);
+    payload.put("body", body);
+    payload.put("data", data);
+    enqueue(OutboxEventType.PUSH, payload);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueuePushToTokens(List<String> tokens, String title, String body, Map<String, Object> data,
+      String collapseKey) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("tokens", tokens);
+    payload.put("title", title);
+    payload.put("body", body);
+    payload.put("data", data);
+    payload.put("collapseKey", collapseKey);
+    enqueue(OutboxEventType.PUSH, payload);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueueChatFanout(Long conversationId, Long senderId, String title, String body,
+      Map<String, Object> data) {
+    Map<String, Object> payload = new LinkedHashMap<>();
+    payload.put("conversationId", conversationId);
+    payload.put("senderId", senderId);
+    payload.put("title", title);
+    payload.put("body", body);
+    payload.put("data", data);
+    enqueue(OutboxEventType.CHAT_FANOUT, payload);
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(OutboxEventType type, Map<String, Object> payload) {
+    OutboxEvent event = new OutboxEvent();
+    event.setEventType(type);
+    event.setPayloadJson(payload);
+    outboxEventRepository.save(event);
+    eventPublisher.publishEvent(new OutboxEnqueuedEvent(type));
+  }
+
+  public void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  @Transactional
+  public List<OutboxEvent> claimDue(int limit) {
+    Instant now = Instant.now();
+    List<OutboxEvent> due = outboxEventRepository.lockDue(now, limit);
+    Instant leaseUntil = now.plusSeconds(leaseSeconds);
+    for (OutboxEvent event : due) {
+      event.setAttempts(event.getAttempts() + 1);
+      event.setAvailableAt(leaseUntil);
+    }
+    return due;
+  }
+
+  @Transactional
+  public void markDelivered(Long eventId) {
+    outboxEventRepository.deleteById(eventId);
+  }
+
+  @Transactional
+  public void markFailed(Long eventId, String error) {
+    markFailed(eventId, error, null);
+  }
+
+  @Transactional
+  public void markFailed(Long eventId, String error, List<String> retryTokens) {
+    OutboxEvent event = outboxEventRepository.findById(eventId).orElse(null);
+    if (event == null) {
+      return;
+    }
+    if (retryTokens != null) {
+      Map<String, Object> payload = new LinkedHashMap<>(event.getPayloadJson());
+      payload.put(RETRY_TOKENS_KEY, retryTokens);
+      event.setPayloadJson(payload);
+    }
+    event.setLastError(truncate(error));
+    if (event.getAttempts() >= maxAttempts) {
+      event.setStatus(OutboxStatus.FAILED);
+      return;
+    }
+    event.setAvailableAt(Instant.now().plus(backoff(event.getAttempts())));
+  }
+
+  public long pendingCount() {
+    return outboxEventRepository.countByStatus(OutboxStatus.PENDING);
+  }
+
+  private Duration backoff(int attempts) {
+    int exponent = Math.max(0, Math.min(attempts - 1, 20));
+    long seconds = baseBackoffSeconds * (1L << exponent);
+    return Duration.ofSeconds(Math.min(seconds, maxBackoffSeconds));
+  }
+
+  private String truncate(String value) {
+    if (value == null || value.length() <= MAX_ERROR_LENGTH) {
+      return value;
+    }
+    return value.substring(0, MAX_ERROR_LENGTH);
+  }
+
+  public record OutboxEnqueuedEvent(OutboxEventType type) {}
+}
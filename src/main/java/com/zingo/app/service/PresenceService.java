@@ -0,0 +1,35 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Block;
+import com.zingo.app.repository.BlockRepository;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Service;
+
+@Service
+public class PresenceService {
+  private final SimpUserRegistry simpUserRegistry;
+  private final BlockRepository blockRepository;
+
+  public PresenceService(SimpUserRegistry simpUserRegistry, BlockRepository blockRepository) {
+    this.simpUserRegistry = simpUserRegistry;
+    this.blockRepository = blockRepository;
+  }
+
+  public List<Long> onlineAmong(Long viewerId, List<Long> userIds) {
+    List<Long> candidates = userIds.stream().distinct().filter(id -> !id.equals(viewerId)).toList();
+    if (candidates.isEmpty()) {
+      return List.of();
+    }
+    Set<Long> blocked = new HashSet<>();
+    for (Block block : blockRepository.findBetweenUserAndAny(viewerId, candidates)) {
+      blocked.add(block.getBlockerId().equals(viewerId) ? block.getBlockedId() : block.getBlockerId());
+    }
+    return candidates.stream()
+        .filter(id -> !blocked.contains(id))
+        .filter(id -> simpUserRegistry.getUser(String.valueOf(id)) != null)
+        .toList();
+  }
+}
@@ -12,9 +12,14 @@ import org.springframework.transaction.annotation.Transactional;
 @Service
 public class ProfileService {
   private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
+  private final AvatarService avatarService;
 
-  public ProfileService(ProfileRepository profileRepository) {
+  public ProfileService(ProfileRepository profileRepository, ProfileSummaryCache profileSummaryCache,
+      AvatarService avatarService) {
     this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
+    this.avatarService = avatarService;
   }
 
   public Profile getCurrentProfile() {
@@ -29,10 +34,11 @@ public class ProfileService {
       profile.setDisplayName(request.displayName());
     }
     if (request.avatarUrl() != null) {
-      profile.setAvatarUrl(request.avatarUrl());
+      profile.setAvatarUrl(avatarService.internalize(request.avatarUrl()));
     }
     if (request.e2eePublicKey() != null) {
       profile.setE2eePublicKey(request.e2eePublicKey());
+      profile.setE2eeKeyFingerprint(E2eeKeyService.fingerprint(request.e2eePublicKey()));
     }
     if (request.e2eeEncryptedPrivateKey() != null) {
       profile.setE2eeEncryptedPrivateKey(request.e2eeEncryptedPrivateKey());
@@ -46,6 +52,8 @@ public class ProfileService {
     if (request.personalityTags() != null) {
       profile.setPersonalityTags(List.copyOf(request.personalityTags()));
     }
-    return profileRepository.save(profile);
+    Profile saved = profileRepository.save(profile);
+    profileSummaryCache.invalidate(saved.getUserId());
+    return saved;
   }
 }
@@ -0,0 +1,129 @@
+package com.zingo.app.service;
+
+import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.ProfileSummary;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ProfileSummaryCache {
+  private final ProfileRepository profileRepository;
+  private final AvatarUrls avatarUrls;
+  private final int maxEntries;
+  private final long ttlMillis;
+  private final LinkedHashMap<Long, Entry> entries;
+  private final AtomicLong generation = new AtomicLong();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  public ProfileSummaryCache(ProfileRepository profileRepository, AvatarUrls avatarUrls,
+      @Value("${app.profileCache.maxEntries:10000}") int maxEntries,
+      @Value("${app.profileCache.ttlSeconds:300}") long ttlSeconds) {
+    this.profileRepository = profileRepository;
+    this.avatarUrls = avatarUrls;
+    this.maxEntries = Math.max(1, maxEntries);
+    this.ttlMillis = ttlSeconds * 1000L;
+    this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+        if (size() > ProfileSummaryCache.this.maxEntries) {
+          evictions.increment();
+          return true;
+        }
+        return false;
+      }
+    };
+  }
+
+  public ProfileSummary get(Long userId) {
+    if (userId == null) {
+      return null;
+    }
+    return getAll(List.of(userId)).get(userId);
+  }
+
+  public Map<Long, ProfileSummary> getAll(Collection<Long> userIds) {
+    Map<Long, ProfileSummary> found = new HashMap<>();
+    List<Long> missing = new ArrayList<>();
+    long now = System.currentTimeMillis();
+    synchronized (entries) {
+      for (Long userId : userIds) {
+        if (userId == null || found.containsKey(userId)) {
+          continue;
+        }
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt > now) {
+          hits.increment();
+          found.put(userId, entry.summary);
+        } else {
+          misses.increment();
+          missing.add(userId);
+        }
+      }
+    }
+    if (missing.isEmpty()) {
+      return found;
+    }
+    long loadGeneration = generation.get();
+    List<ProfileSummary> loaded = profileRepository.findSummariesByUserIdIn(missing);
+    long expiresAt = System.currentTimeMillis() + ttlMillis;
+    synchronized (entries) {
+      boolean cacheable = generation.get() == loadGeneration;
+      for (ProfileSummary row : loaded) {
+        ProfileSummary summary = new ProfileSummary(row.userId(), row.displayName(),
+            avatarUrls.listUrl(row.avatarUrl()), row.bioShort(), row.personalityTags(), row.e2eeKeyFingerprint());
+        if (cacheable) {
+          entries.put(summary.userId(), new Entry(summary, expiresAt));
+        }
+        found.put(summary.userId(), summary);
+      }
+    }
+    return found;
+  }
+
+  public void invalidate(Long userId) {
+    evict(userId);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evict(userId);
+        }
+      });
+    }
+  }
+
+  public CacheStats stats() {
+    long hitCount = hits.sum();
+    long missCount = misses.sum();
+    long lookups = hitCount + missCount;
+    int size;
+    synchronized (entries) {
+      size = entries.size();
+    }
+    return new CacheStats(size, maxEntries, hitCount, missCount, evictions.sum(),
+        lookups == 0 ? 0.0 : (double) hitCount / lookups);
+  }
+
+  private void evict(Long userId) {
+    synchronized (entries) {
+      generation.incrementAndGet();
+      entries.remove(userId);
+    }
+  }
+
+  public record CacheStats(int size, int maxEntries, long hits, long misses, long evictions, double hitRate) {}
+
+  private record Entry(ProfileSummary summary, long expiresAt) {}
+}
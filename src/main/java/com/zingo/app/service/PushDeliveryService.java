@@ -2,14 +2,23 @@ package com.zingo.app.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.IOException;
+import com.zingo.app.websocket.WebSocketSessionRegistry;
+import jakarta.annotation.PreDestroy;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,40 +27,117 @@ import org.springframework.stereotype.Service;
 @Service
 public class PushDeliveryService {
   private static final Logger log = LoggerFactory.getLogger(PushDeliveryService.class);
-  private static final String FCM_ENDPOINT = "https://fcm.googleapis.com/fcm/send";
+  private static final int MAX_MULTICAST_TOKENS = 500;
 
   private final PushTokenService pushTokenService;
+  private final DeadTokenPruner deadTokenPruner;
+  private final WebSocketSessionRegistry sessionRegistry;
   private final ObjectMapper objectMapper;
   private final String fcmServerKey;
+  private final URI fcmEndpoint;
+  private final Duration requestTimeout;
+  private final long acquireTimeoutMillis;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final ThreadPoolExecutor executor;
   private final HttpClient httpClient;
 
   public PushDeliveryService(
       PushTokenService pushTokenService,
+      DeadTokenPruner deadTokenPruner,
+      WebSocketSessionRegistry sessionRegistry,
       ObjectMapper objectMapper,
-      @Value("${app.push.fcmServerKey:}") String fcmServerKey) {
+      @Value("${app.push.fcmServerKey:}") String fcmServerKey,
+      @Value("${app.push.fcmEndpoint:https://fcm.googleapis.com/fcm/send}") String fcmEndpoint,
+      @Value("${app.push.deliveryThreads:4}") int threads,
+      @Value("${app.push.maxInFlight:64}") int maxInFlight,
+      @Value("${app.push.acquireTimeoutMs:2000}") long acquireTimeoutMillis,
+      @Value("${app.push.requestTimeoutMs:8000}") long requestTimeoutMillis) {
     this.pushTokenService = pushTokenService;
+    this.deadTokenPruner = deadTokenPruner;
+    this.sessionRegistry = sessionRegistry;
     this.objectMapper = objectMapper;
     this.fcmServerKey = fcmServerKey == null ? "" : fcmServerKey.trim();
-    this.httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    this.fcmEndpoint = URI.create(fcmEndpoint.trim());
+    this.requestTimeout = Duration.ofMillis(requestTimeoutMillis);
+    this.acquireTimeoutMillis = acquireTimeoutMillis;
+    this.maxInFlight = Math.max(1, maxInFlight);
+    this.inFlight = new Semaphore(this.maxInFlight);
+    AtomicInteger threadCount = new AtomicInteger();
+    // The semaphore caps requests, so the client's queue only holds their handoffs; when it fills, the
+    // submitting thread runs the task itself instead of the queue growing without bound.
+    this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(this.maxInFlight * 4), runnable -> {
+          Thread thread = new Thread(runnable, "push-http-" + threadCount.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    this.executor.allowCoreThreadTimeOut(true);
+    this.httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_2)
+        .connectTimeout(Duration.ofSeconds(5))
+        .executor(executor)
+        .build();
+  }
+
+  public CompletableFuture<PushResult> sendToUser(Long userId, String title, String body,
+      Map<String, Object> data) {
+    if (fcmServerKey.isBlank() || sessionRegistry.receivesNotifications(userId)) {
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
+    }
+    return sendToTokens(pushTokenService.listTokensForUser(userId), title, body, data);
   }
 
-  public void sendToUser(Long userId, String title, String body, Map<String, Object> data) {
+  public CompletableFuture<PushResult> sendToTokens(List<String> tokens, String title, String body,
+      Map<String, Object> data) {
+    return sendToTokens(tokens, title, body, data, null);
+  }
+
+  public CompletableFuture<PushResult> sendToTokens(List<String> tokens, String title, String body,
+      Map<String, Object> data, String collapseKey) {
     if (fcmServerKey.isBlank()) {
-      return;
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
+    }
+    List<String> live = tokens.stream().filter(token -> !deadTokenPruner.isPending(token)).toList();
+    if (live.isEmpty()) {
+      return CompletableFuture.completedFuture(PushResult.DELIVERED);
     }
-    for (String token : pushTokenService.listTokensForUser(userId)) {
-      sendToToken(token, title, body, data);
+    List<CompletableFuture<List<String>>> chunks = new ArrayList<>();
+    for (int start = 0; start < live.size(); start += MAX_MULTICAST_TOKENS) {
+      List<String> chunk = live.subList(start, Math.min(start + MAX_MULTICAST_TOKENS, live.size()));
+      chunks.add(sendToChunk(chunk, title, body, data, collapseKey));
     }
+    return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+        .thenApply(ignored -> new PushResult(chunks.stream().flatMap(chunk -> chunk.join().stream()).toList()));
   }
 
-  private void sendToToken(String token, String title, String body, Map<String, Object> data) {
+  public int waitingForPermit() {
+    return inFlight.getQueueLength();
+  }
+
+  public int inFlightRequests() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  private CompletableFuture<List<String>> sendToChunk(List<String> tokens, String title, String body,
+      Map<String, Object> data, String collapseKey) {
     Map<String, Object> payload = new LinkedHashMap<>();
-    payload.put("to", token);
+    if (tokens.size() == 1) {
+      payload.put("to", tokens.get(0));
+    } else {
+      payload.put("registration_ids", tokens);
+    }
     payload.put("priority", "high");
+    if (collapseKey != null) {
+      payload.put("collapse_key", collapseKey);
+    }
 
     Map<String, String> notification = new LinkedHashMap<>();
     notification.put("title", title == null ? "Aurofly" : title);
     notification.put("body", body == null ? "" : body);
+    if (collapseKey != null) {
+      notification.put("tag", collapseKey);
+    }
     payload.put("notification", notification);
     payload.put("data", stringifyData(data));
 
@@ -59,27 +145,51 @@ public class PushDeliveryService {
     try {
       bodyText = objectMapper.writeValueAsString(payload);
     } catch (JsonProcessingException exception) {
-      return;
+      return CompletableFuture.completedFuture(List.of());
     }
 
     HttpRequest request = HttpRequest.newBuilder()
-        .uri(URI.create(FCM_ENDPOINT))
-        .timeout(Duration.ofSeconds(8))
+        .uri(fcmEndpoint)
+        .timeout(requestTimeout)
         .header("Content-Type", "application/json")
         .header("Authorization", "key=" + fcmServerKey)
         .POST(HttpRequest.BodyPublishers.ofString(bodyText))
         .build();
     try {
-      HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-      if (response.statusCode() >= 400) {
-        log.warn("FCM push failed: status={} body={}", response.statusCode(), response.body());
+      if (!inFlight.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+        log.warn("FCM delivery saturated, deferring push to {} tokens", tokens.size());
+        return CompletableFuture.completedFuture(tokens);
       }
     } catch (InterruptedException exception) {
       Thread.currentThread().interrupt();
-      log.warn("FCM push request failed", exception);
-    } catch (IOException exception) {
-      log.warn("FCM push request failed", exception);
+      return CompletableFuture.completedFuture(tokens);
+    }
+    return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+        .handle((response, failure) -> {
+          inFlight.release();
+          if (failure != null) {
+            log.warn("FCM push request failed", failure);
+            return tokens;
+          }
+          return handleResponse(tokens, response);
+        });
+  }
+
+  private List<String> handleResponse(List<String> tokens, HttpResponse<String> response) {
+    FcmBatchResult result = FcmBatchResult.parse(objectMapper, tokens, response.statusCode(), response.body());
+    if (response.statusCode() >= 400) {
+      log.warn("FCM push failed: status={} body={}", response.statusCode(), response.body());
+    } else if (result.failure() > 0) {
+      log.debug("FCM push partially failed: success={} failure={} invalid={}", result.success(), result.failure(),
+          result.invalidTokens().size());
+    }
+    if (!result.invalidTokens().isEmpty()) {
+      deadTokenPruner.report(result.invalidTokens());
+    }
+    if (!result.canonicalTokens().isEmpty()) {
+      deadTokenPruner.reportCanonical(result.canonicalTokens());
     }
+    return result.unavailableTokens();
   }
 
   private Map<String, String> stringifyData(Map<String, Object> data) {
@@ -92,4 +202,17 @@ public class PushDeliveryService {
     }
     return result;
   }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  public record PushResult(List<String> retryTokens) {
+    public static final PushResult DELIVERED = new PushResult(List.of());
+
+    public boolean delivered() {
+      return retryTokens.isEmpty();
+    }
+  }
 }
@@ -0,0 +1,150 @@
+package com.zingo.app.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Digest windows live in memory on the node that sent the first push; pending counts are not shared
+// across nodes and are lost on restart.
+@Component
+public class PushDigestService {
+  private final PushTokenService pushTokenService;
+  private final OutboxService outboxService;
+  private final long windowMillis;
+  private final ConcurrentHashMap<DigestKey, Digest> digests = new ConcurrentHashMap<>();
+
+  public PushDigestService(PushTokenService pushTokenService, OutboxService outboxService,
+      @Value("${app.push.digestWindowMs:15000}") long windowMillis) {
+    this.pushTokenService = pushTokenService;
+    this.outboxService = outboxService;
+    this.windowMillis = windowMillis;
+  }
+
+  public static String collapseKey(Long conversationId) {
+    return "chat-" + conversationId;
+  }
+
+  public List<Long> admit(Long conversationId, List<Long> recipients, String title, Map<String, Object> data) {
+    if (windowMillis <= 0) {
+      return recipients;
+    }
+    long now = System.currentTimeMillis();
+    List<Long> immediate = new ArrayList<>();
+    for (Long recipient : recipients) {
+      boolean[] sendNow = new boolean[1];
+      digests.compute(new DigestKey(recipient, conversationId), (key, digest) -> {
+        if (digest == null || (digest.windowEndsAt <= now && digest.pending == 0)) {
+          sendNow[0] = true;
+          return new Digest(now + windowMillis);
+        }
+        digest.pending++;
+        digest.title = title;
+        digest.data = data;
+        return digest;
+      });
+      if (sendNow[0]) {
+        immediate.add(recipient);
+      }
+    }
+    return immediate;
+  }
+
+  public void release(Long conversationId, List<Long> recipients) {
+    for (Long recipient : recipients) {
+      digests.computeIfPresent(new DigestKey(recipient, conversationId),
+          (key, digest) -> digest.pending == 0 ? null : digest);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.push.digestFlushMs:1000}")
+  @Transactional
+  public void flush() {
+    if (digests.isEmpty()) {
+      return;
+    }
+    long now = System.currentTimeMillis();
+    Map<DigestBatch, List<Long>> batches = new HashMap<>();
+    Map<DigestKey, DigestBatch> taken = new HashMap<>();
+    requeueOnRollback(taken);
+    for (DigestKey key : new ArrayList<>(digests.keySet())) {
+      digests.computeIfPresent(key, (ignored, digest) -> {
+        if (digest.windowEndsAt > now) {
+          return digest;
+        }
+        if (digest.pending == 0) {
+          return null;
+        }
+        DigestBatch batch = new DigestBatch(key.conversationId(), digest.pending, digest.title, digest.data);
+        batches.computeIfAbsent(batch, ignoredBatch -> new ArrayList<>()).add(key.recipientId());
+        taken.put(key, batch);
+        return new Digest(now + windowMillis);
+      });
+    }
+    for (Map.Entry<DigestBatch, List<Long>> entry : batches.entrySet()) {
+      DigestBatch batch = entry.getKey();
+      Map<String, Object> data = new LinkedHashMap<>();
+      if (batch.data() != null) {
+        data.putAll(batch.data());
+      }
+      data.put("digestCount", batch.count());
+      String body = batch.count() == 1 ? "1 new message" : batch.count() + " new messages";
+      List<String> tokens = pushTokenService.listTokensForUsers(entry.getValue());
+      if (!tokens.isEmpty()) {
+        outboxService.enqueuePushToTokens(tokens, batch.title(), body, data, collapseKey(batch.conversationId()));
+      }
+    }
+  }
+
+  private void requeueOnRollback(Map<DigestKey, DigestBatch> taken) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          taken.forEach((key, batch) -> digests.merge(key, Digest.pending(batch), Digest::absorb));
+        }
+      }
+    });
+  }
+
+  private record DigestKey(Long recipientId, Long conversationId) {}
+
+  private record DigestBatch(Long conversationId, int count, String title, Map<String, Object> data) {}
+
+  private static final class Digest {
+    private final long windowEndsAt;
+    private int pending;
+    private String title;
+    private Map<String, Object> data;
+
+    private Digest(long windowEndsAt) {
+      this.windowEndsAt = windowEndsAt;
+    }
+
+    private static Digest pending(DigestBatch batch) {
+      Digest digest = new Digest(0);
+      digest.pending = batch.count();
+      digest.title = batch.title();
+      digest.data = batch.data();
+      return digest;
+    }
+
+    // Keeps the current window and the newest title; the requeued messages are older.
+    private Digest absorb(Digest requeued) {
+      if (pending == 0) {
+        title = requeued.title;
+        data = requeued.data;
+      }
+      pending += requeued.pending;
+      return this;
+    }
+  }
+}
@@ -3,6 +3,7 @@ package com.zingo.app.service;
 import com.zingo.app.entity.DeviceToken;
 import com.zingo.app.repository.DeviceTokenRepository;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Locale;
 import org.springframework.stereotype.Service;
@@ -48,6 +49,14 @@ public class PushTokenService {
         .toList();
   }
 
+  public List<String> listTokensForUsers(Collection<Long> userIds) {
+    return deviceTokenRepository.findByUserIdIn(userIds).stream()
+        .map(DeviceToken::getToken)
+        .filter(value -> value != null && !value.isBlank())
+        .distinct()
+        .toList();
+  }
+
   private String normalizePlatform(String platform) {
     String value = platform == null ? "" : platform.trim().toLowerCase(Locale.ROOT);
     if (value.isBlank()) {
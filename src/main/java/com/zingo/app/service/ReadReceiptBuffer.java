@@ -0,0 +1,112 @@
+package com.zingo.app.service;
+
+import com.zingo.app.dto.ChatDtos.ReadReceiptEvent;
+import com.zingo.app.repository.ConversationInboxRepository;
+import com.zingo.app.repository.ConversationMemberRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ReadReceiptBuffer {
+  private static final int MAX_UNREAD_COUNT = 999;
+  private static final int MAX_UNREAD_ATTEMPTS = 5;
+
+  private final ConversationMemberRepository conversationMemberRepository;
+  private final ConversationInboxRepository conversationInboxRepository;
+  private final MessageStore messageStore;
+  private final OutboxService outboxService;
+  private final SimpMessagingTemplate messagingTemplate;
+  private final ConcurrentHashMap<ReadKey, Long> pending = new ConcurrentHashMap<>();
+
+  public ReadReceiptBuffer(ConversationMemberRepository conversationMemberRepository,
+      ConversationInboxRepository conversationInboxRepository, MessageStore messageStore, OutboxService outboxService,
+      SimpMessagingTemplate messagingTemplate) {
+    this.conversationMemberRepository = conversationMemberRepository;
+    this.conversationInboxRepository = conversationInboxRepository;
+    this.messageStore = messageStore;
+    this.outboxService = outboxService;
+    this.messagingTemplate = messagingTemplate;
+  }
+
+  public void record(Long conversationId, Long userId, Long messageId) {
+    pending.merge(new ReadKey(conversationId, userId), messageId, Math::max);
+  }
+
+  public Long pendingFor(Long conversationId, Long userId) {
+    return pending.get(new ReadKey(conversationId, userId));
+  }
+
+  @Scheduled(fixedDelayString = "${app.chat.readReceiptFlushMs:1000}")
+  // Read committed so each recount sees the head a concurrent recordMessage just committed.
+  @Transactional(isolation = Isolation.READ_COMMITTED)
+  public void flush() {
+    if (pending.isEmpty()) {
+      return;
+    }
+    Instant readAt = Instant.now();
+    Map<ReadKey, Long> taken = new HashMap<>();
+    requeueOnRollback(taken);
+    List<ReadReceiptEvent> receipts = new ArrayList<>();
+    for (Map.Entry<ReadKey, Long> entry : new ArrayList<>(pending.entrySet())) {
+      ReadKey key = entry.getKey();
+      Long messageId = entry.getValue();
+      if (!pending.remove(key, messageId)) {
+        continue;
+      }
+      taken.put(key, messageId);
+      int advanced = conversationMemberRepository.advanceLastRead(key.conversationId(), key.userId(), messageId);
+      if (advanced == 0) {
+        continue;
+      }
+      recountUnread(key, messageId);
+      receipts.add(new ReadReceiptEvent("READ", key.conversationId(), key.userId(), messageId, readAt));
+    }
+    if (!receipts.isEmpty()) {
+      outboxService.afterCommit(() -> {
+        for (ReadReceiptEvent receipt : receipts) {
+          messagingTemplate.convertAndSend("/topic/chat." + receipt.conversationId(), receipt);
+        }
+      });
+    }
+  }
+
+  private void recountUnread(ReadKey key, Long readMessageId) {
+    // Count up to the inbox head and write only if that head is unchanged; a miss means recordMessage
+    // incremented the row meanwhile, so count again rather than overwrite its increment.
+    for (int attempt = 0; attempt < MAX_UNREAD_ATTEMPTS; attempt++) {
+      Long headId = conversationInboxRepository.findLastMessageId(key.userId(), key.conversationId()).orElse(null);
+      if (headId == null) {
+        return;
+      }
+      long unread = headId <= readMessageId ? 0
+          : messageStore.countBetween(key.conversationId(), readMessageId, headId, key.userId(), MAX_UNREAD_COUNT);
+      if (conversationInboxRepository.setUnreadAtHead(key.userId(), key.conversationId(), (int) unread, headId) > 0) {
+        return;
+      }
+    }
+  }
+
+  private void requeueOnRollback(Map<ReadKey, Long> taken) {
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCompletion(int status) {
+        if (status != STATUS_COMMITTED) {
+          taken.forEach((key, messageId) -> pending.merge(key, messageId, Math::max));
+        }
+      }
+    });
+  }
+
+  private record ReadKey(Long conversationId, Long userId) {}
+}
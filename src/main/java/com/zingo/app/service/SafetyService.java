@@ -21,11 +21,14 @@ public class SafetyService {
   private final BlockRepository blockRepository;
   private final ReportRepository reportRepository;
   private final ProfileRepository profileRepository;
+  private final ConversationMembershipCache membershipCache;
 
-  public SafetyService(BlockRepository blockRepository, ReportRepository reportRepository, ProfileRepository profileRepository) {
+  public SafetyService(BlockRepository blockRepository, ReportRepository reportRepository, ProfileRepository profileRepository,
+      ConversationMembershipCache membershipCache) {
     this.blockRepository = blockRepository;
     this.reportRepository = reportRepository;
     this.profileRepository = profileRepository;
+    this.membershipCache = membershipCache;
   }
 
   @Transactional
@@ -41,6 +44,7 @@ public class SafetyService {
     block.setBlockerId(userId);
     block.setBlockedId(request.blockedId());
     blockRepository.save(block);
+    membershipCache.onBlocksChanged();
   }
 
   @Transactional
@@ -0,0 +1,851 @@
+package com.zingo.app.service;
+
+import com.zingo.app.entity.Message;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+@ConditionalOnProperty(name = "app.chat.messageStore", havingValue = "segment")
+public class SegmentFileMessageStore implements MessageStore {
+  private static final Logger log = LoggerFactory.getLogger(SegmentFileMessageStore.class);
+
+  private static final byte RECORD_MESSAGE = 1;
+  private static final byte RECORD_DELETE = 2;
+  private static final byte RECORD_REPLACEMENT = 3;
+  private static final byte RECORD_REPLACE_COMMIT = 4;
+  private static final long NO_LOCATION = -1L;
+  private static final int OFFSET_BITS = 40;
+  private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+  private static final int LENGTH_BYTES = 4;
+  private static final int CRC_BYTES = 4;
+  private static final int FIXED_PAYLOAD_BYTES = 1 + 8 + 8 + 8 + 8 + 4 + 8 + 2 + 1 + 4;
+  private static final int CLIENT_ID_WINDOW = 500;
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private final Path root;
+  private final int segmentBytes;
+  private final int checkpointInterval;
+  private final double compactionGarbageRatio;
+  private final Shard[] shards;
+  private final AtomicLong nextId;
+  private final ScheduledExecutorService compactor;
+
+  public SegmentFileMessageStore(
+      @Value("${app.chat.segments.dir:data/messages}") String dir,
+      @Value("${app.chat.segments.shards:64}") int shardCount,
+      @Value("${app.chat.segments.segmentBytes:67108864}") int segmentBytes,
+      @Value("${app.chat.segments.checkpointInterval:64}") int checkpointInterval,
+      @Value("${app.chat.segments.compactionGarbageRatio:0.5}") double compactionGarbageRatio,
+      @Value("${app.chat.segments.compactionIntervalMs:600000}") long compactionIntervalMs) {
+    this.root = Paths.get(dir).toAbsolutePath().normalize();
+    this.segmentBytes = segmentBytes;
+    this.checkpointInterval = Math.max(1, checkpointInterval);
+    this.compactionGarbageRatio = compactionGarbageRatio;
+    this.shards = new Shard[Math.max(1, shardCount)];
+    long maxId = 0;
+    for (int i = 0; i < shards.length; i++) {
+      shards[i] = new Shard(root.resolve(String.format("shard-%03d", i)));
+      maxId = Math.max(maxId, shards[i].load());
+    }
+    this.nextId = new AtomicLong(Math.max(maxId + 1, System.currentTimeMillis()));
+    this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "message-compactor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.compactor.scheduleWithFixedDelay(this::compact, compactionIntervalMs, compactionIntervalMs,
+        TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public Message append(Message message) {
+    Shard shard = shardFor(message.getConversationId());
+    shard.lock.writeLock().lock();
+    try {
+      if (message.getCreatedAt() == null) {
+        message.setCreatedAt(Instant.now());
+      }
+      long id = nextId.getAndIncrement();
+      ConversationLog conversation =
+          shard.conversations.computeIfAbsent(message.getConversationId(), key -> new ConversationLog());
+      byte[] record = encode(RECORD_MESSAGE, id, message.getConversationId(), message.getSenderId(),
+          message.getCreatedAt(), conversation.head, message.getClientMessageId(), message.getPayloadFormat(),
+          bodyOf(message));
+      long location = shard.write(record);
+      conversation.add(id, location, record.length, checkpointInterval);
+      shard.liveBytes += record.length;
+      message.setId(id);
+      return message;
+    } finally {
+      shard.lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Message> findById(Long conversationId, Long messageId) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      if (conversation == null) {
+        return Optional.empty();
+      }
+      long location = conversation.locationAtOrAfterId(messageId);
+      while (location != NO_LOCATION) {
+        StoredRecord record = shard.read(location, true);
+        if (record.id() == messageId) {
+          return Optional.of(record.toMessage());
+        }
+        if (record.id() < messageId) {
+          break;
+        }
+        location = record.previous();
+      }
+      return Optional.empty();
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Message> findLast(Long conversationId) {
+    return findLatest(conversationId, 1).stream().findFirst();
+  }
+
+  @Override
+  public List<Message> findLatest(Long conversationId, int limit) {
+    return walkBackwards(conversationId, Long.MAX_VALUE, limit);
+  }
+
+  @Override
+  public List<Message> findBefore(Message cursor, int limit) {
+    return walkBackwards(cursor.getConversationId(), cursor.getId(), limit);
+  }
+
+  @Override
+  public List<Message> findAfter(Message cursor, int limit) {
+    return findSince(cursor.getConversationId(), cursor.getId(), limit);
+  }
+
+  @Override
+  public List<Message> findSince(Long conversationId, Long afterId, int limit) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      if (conversation == null || limit <= 0 || conversation.headId <= afterId) {
+        return List.of();
+      }
+      long location = conversation.head;
+      int first = conversation.firstCheckpointWithIdAbove(afterId);
+      if (first < conversation.checkpoints) {
+        int end = conversation.firstCheckpointWithSeqAtLeast(conversation.checkpointSeqs[first] + limit - 1);
+        if (end < conversation.checkpoints) {
+          location = conversation.checkpointLocations[end];
+        }
+      }
+      List<Message> newestFirst = new ArrayList<>();
+      while (location != NO_LOCATION) {
+        StoredRecord record = shard.read(location, true);
+        if (record.id() <= afterId) {
+          break;
+        }
+        newestFirst.add(record.toMessage());
+        location = record.previous();
+      }
+      Collections.reverse(newestFirst);
+      return newestFirst.size() > limit ? new ArrayList<>(newestFirst.subList(0, limit)) : newestFirst;
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public Optional<Message> findByClientMessageId(Long conversationId, Long senderId, String clientMessageId) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      long location = conversation == null ? NO_LOCATION : conversation.head;
+      for (int scanned = 0; location != NO_LOCATION && scanned < CLIENT_ID_WINDOW; scanned++) {
+        StoredRecord record = shard.read(location, true);
+        if (record.senderId() == senderId && clientMessageId.equals(record.clientMessageId())) {
+          return Optional.of(record.toMessage());
+        }
+        location = record.previous();
+      }
+      return Optional.empty();
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public long countBetween(Long conversationId, Long afterId, Long throughId, Long excludeSenderId, int limit) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      long location = conversation == null ? NO_LOCATION : conversation.head;
+      long count = 0;
+      while (location != NO_LOCATION && count < limit) {
+        StoredRecord record = shard.read(location, false);
+        if (record.id() <= afterId) {
+          break;
+        }
+        if (record.id() <= throughId && record.senderId() != excludeSenderId) {
+          count++;
+        }
+        location = record.previous();
+      }
+      return count;
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public void moveConversation(Long sourceConversationId, Long targetConversationId) {
+    if (sourceConversationId.equals(targetConversationId)) {
+      return;
+    }
+    List<Message> moved = readAll(sourceConversationId);
+    if (moved.isEmpty()) {
+      return;
+    }
+    Shard shard = shardFor(targetConversationId);
+    shard.lock.writeLock().lock();
+    try {
+      List<Message> merged = new ArrayList<>(moved);
+      ConversationLog previous = shard.conversations.get(targetConversationId);
+      if (previous != null) {
+        for (StoredRecord record : shard.chain(previous.head)) {
+          merged.add(record.toMessage());
+        }
+      }
+      merged.sort(Comparator.comparing(Message::getId));
+      ConversationLog replacement = new ConversationLog();
+      for (Message message : merged) {
+        byte[] record = encode(RECORD_REPLACEMENT, message.getId(), targetConversationId, message.getSenderId(),
+            message.getCreatedAt(), replacement.head, message.getClientMessageId(), message.getPayloadFormat(),
+            bodyOf(message));
+        replacement.add(message.getId(), shard.write(record), record.length, checkpointInterval);
+      }
+      shard.write(encode(RECORD_REPLACE_COMMIT, 0, targetConversationId, 0, Instant.EPOCH, NO_LOCATION, null,
+          MessagePayloads.FORMAT_TEXT, null));
+      shard.conversations.put(targetConversationId, replacement);
+      shard.liveBytes += replacement.bytes - (previous != null ? previous.bytes : 0);
+      shard.structuralChanges++;
+    } finally {
+      shard.lock.writeLock().unlock();
+    }
+    deleteConversation(sourceConversationId);
+  }
+
+  @Override
+  public void deleteConversation(Long conversationId) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.writeLock().lock();
+    try {
+      ConversationLog removed = shard.conversations.remove(conversationId);
+      if (removed == null) {
+        return;
+      }
+      shard.write(encode(RECORD_DELETE, 0, conversationId, 0, Instant.EPOCH, NO_LOCATION, null,
+          MessagePayloads.FORMAT_TEXT, null));
+      shard.liveBytes -= removed.bytes;
+      shard.structuralChanges++;
+    } finally {
+      shard.lock.writeLock().unlock();
+    }
+  }
+
+  public synchronized void compact() {
+    for (Shard shard : shards) {
+      try {
+        CompactionSnapshot snapshot;
+        shard.lock.readLock().lock();
+        try {
+          long garbage = shard.totalBytes - shard.liveBytes;
+          if (garbage <= 0 || garbage < shard.totalBytes * compactionGarbageRatio) {
+            continue;
+          }
+          snapshot = shard.snapshot();
+        } finally {
+          shard.lock.readLock().unlock();
+        }
+        Compaction compaction = shard.rewrite(snapshot);
+        shard.lock.writeLock().lock();
+        try {
+          shard.finishCompaction(compaction);
+        } finally {
+          shard.lock.writeLock().unlock();
+        }
+      } catch (IOException | RuntimeException exception) {
+        log.warn("Message segment compaction failed for {}", shard.dir, exception);
+      }
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${app.chat.segments.forceIntervalMs:1000}")
+  public void force() {
+    for (Shard shard : shards) {
+      shard.lock.readLock().lock();
+      try {
+        shard.force();
+      } finally {
+        shard.lock.readLock().unlock();
+      }
+    }
+  }
+
+  @PreDestroy
+  public void close() {
+    compactor.shutdown();
+    try {
+      compactor.awaitTermination(30, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+    force();
+  }
+
+  private List<Message> walkBackwards(Long conversationId, long beforeId, int limit) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      if (conversation == null || limit <= 0) {
+        return List.of();
+      }
+      long location = beforeId == Long.MAX_VALUE ? conversation.head : conversation.locationAtOrAfterId(beforeId);
+      List<Message> newestFirst = new ArrayList<>(Math.min(limit, 256));
+      while (location != NO_LOCATION && newestFirst.size() < limit) {
+        StoredRecord record = shard.read(location, true);
+        if (record.id() < beforeId) {
+          newestFirst.add(record.toMessage());
+        }
+        location = record.previous();
+      }
+      return newestFirst;
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  private List<Message> readAll(Long conversationId) {
+    Shard shard = shardFor(conversationId);
+    shard.lock.readLock().lock();
+    try {
+      ConversationLog conversation = shard.conversations.get(conversationId);
+      if (conversation == null) {
+        return List.of();
+      }
+      return shard.chain(conversation.head).stream().map(StoredRecord::toMessage).toList();
+    } finally {
+      shard.lock.readLock().unlock();
+    }
+  }
+
+  private Shard shardFor(Long conversationId) {
+    return shards[(int) Math.floorMod(conversationId, (long) shards.length)];
+  }
+
+  private static long location(int segment, int offset) {
+    return ((long) segment << OFFSET_BITS) | offset;
+  }
+
+  private static byte[] encode(byte type, long id, long conversationId, long senderId, Instant createdAt,
+      long previous, String clientMessageId, byte format, byte[] content) {
+    byte[] client = clientMessageId == null ? null : clientMessageId.getBytes(StandardCharsets.UTF_8);
+    byte[] body = content == null ? new byte[0] : content;
+    int payload = FIXED_PAYLOAD_BYTES + (client == null ? 0 : client.length) + body.length;
+    ByteBuffer buffer = ByteBuffer.allocate(LENGTH_BYTES + payload + CRC_BYTES);
+    buffer.putInt(payload + CRC_BYTES);
+    buffer.put(type)
+        .putLong(id)
+        .putLong(conversationId)
+        .putLong(senderId)
+        .putLong(createdAt.getEpochSecond())
+        .putInt(createdAt.getNano())
+        .putLong(previous);
+    buffer.putShort(client == null ? -1 : (short) client.length);
+    if (client != null) {
+      buffer.put(client);
+    }
+    buffer.put(format).putInt(body.length).put(body);
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), LENGTH_BYTES, payload);
+    buffer.putInt((int) crc.getValue());
+    return buffer.array();
+  }
+
+  private static byte[] bodyOf(Message message) {
+    if (message.getPayloadFormat() != MessagePayloads.FORMAT_TEXT) {
+      return message.getCiphertext();
+    }
+    return message.getText() == null ? null : message.getText().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void deleteRecursively(Path path) throws IOException {
+    if (!Files.exists(path)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(path)) {
+      for (Path entry : paths.sorted(Comparator.reverseOrder()).toList()) {
+        Files.deleteIfExists(entry);
+      }
+    }
+  }
+
+  private final class Shard {
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path dir;
+    private List<Segment> segments = new ArrayList<>();
+    private Map<Long, ConversationLog> conversations = new HashMap<>();
+    private long liveBytes;
+    private long totalBytes;
+    private long structuralChanges;
+
+    private Shard(Path dir) {
+      this.dir = dir;
+    }
+
+    private long load() {
+      try {
+        Path staging = sibling(".compacting");
+        Path retired = sibling(".old");
+        if (!Files.exists(dir) && Files.exists(staging)) {
+          Files.move(staging, dir, StandardCopyOption.ATOMIC_MOVE);
+        }
+        deleteRecursively(staging);
+        deleteRecursively(retired);
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+          files = listing.filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().toList();
+        }
+        long maxId = 0;
+        Map<Long, ConversationLog> replacements = new HashMap<>();
+        for (int index = 0; index < files.size(); index++) {
+          if (!files.get(index).equals(segmentPath(dir, index))) {
+            throw new IllegalStateException("Missing message segment " + segmentPath(dir, index));
+          }
+          boolean last = index == files.size() - 1;
+          Segment segment = Segment.open(files.get(index), last ? segmentBytes : 0);
+          segments.add(segment);
+          int offset = 0;
+          StoredRecord record;
+          while ((record = readAt(segment, offset, false, true)) != null) {
+            long location = location(index, offset);
+            totalBytes += record.size();
+            switch (record.type()) {
+              case RECORD_MESSAGE -> {
+                conversations.computeIfAbsent(record.conversationId(), key -> new ConversationLog())
+                    .add(record.id(), location, record.size(), checkpointInterval);
+                liveBytes += record.size();
+                maxId = Math.max(maxId, record.id());
+              }
+              case RECORD_DELETE -> {
+                ConversationLog removed = conversations.remove(record.conversationId());
+                if (removed != null) {
+                  liveBytes -= removed.bytes;
+                }
+              }
+              case RECORD_REPLACEMENT -> replacements
+                  .computeIfAbsent(record.conversationId(), key -> new ConversationLog())
+                  .add(record.id(), location, record.size(), checkpointInterval);
+              case RECORD_REPLACE_COMMIT -> {
+                ConversationLog replacement = replacements.remove(record.conversationId());
+                if (replacement != null) {
+                  ConversationLog previous = conversations.put(record.conversationId(), replacement);
+                  liveBytes += replacement.bytes - (previous != null ? previous.bytes : 0);
+                }
+              }
+              default -> throw new IllegalStateException("Unknown message record type " + record.type());
+            }
+            offset += record.size();
+          }
+          segment.end = offset;
+          if (last && offset + LENGTH_BYTES <= segment.buffer.capacity() && segment.buffer.getInt(offset) != 0) {
+            log.warn("Truncating torn message record in {} at offset {}", files.get(index), offset);
+            segment.zeroFrom(offset);
+          }
+        }
+        return maxId;
+      } catch (IOException exception) {
+        throw new UncheckedIOException(exception);
+      }
+    }
+
+    private long write(byte[] record) {
+      if (record.length + LENGTH_BYTES > segmentBytes) {
+        throw new IllegalArgumentException("Message too large for segment store");
+      }
+      Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+      if (active == null || active.end + record.length + LENGTH_BYTES > active.buffer.capacity()) {
+        if (active != null) {
+          active.force();
+        }
+        try {
+          active = Segment.open(segmentPath(dir, segments.size()), segmentBytes);
+        } catch (IOException exception) {
+          throw new UncheckedIOException(exception);
+        }
+        segments.add(active);
+      }
+      int offset = active.end;
+      active.buffer.put(offset, record);
+      active.end += record.length;
+      active.dirty = true;
+      totalBytes += record.length;
+      return location(segments.size() - 1, offset);
+    }
+
+    private StoredRecord read(long location, boolean withBody) {
+      return read(segments, location, withBody);
+    }
+
+    private StoredRecord read(List<Segment> source, long location, boolean withBody) {
+      Segment segment = source.get((int) (location >>> OFFSET_BITS));
+      StoredRecord record = readAt(segment, (int) (location & OFFSET_MASK), withBody, false);
+      if (record == null) {
+        throw new IllegalStateException("Corrupt message segment in " + dir);
+      }
+      return record;
+    }
+
+    private List<StoredRecord> chain(long head) {
+      return chain(segments, head, NO_LOCATION);
+    }
+
+    private List<StoredRecord> chain(List<Segment> source, long head, long stopAt) {
+      List<StoredRecord> records = new ArrayList<>();
+      for (long location = head; location != stopAt && location != NO_LOCATION; ) {
+        StoredRecord record = read(source, location, true);
+        records.add(record);
+        location = record.previous();
+      }
+      Collections.reverse(records);
+      return records;
+    }
+
+    private CompactionSnapshot snapshot() {
+      Map<Long, Long> heads = new TreeMap<>();
+      conversations.forEach((conversationId, conversation) -> heads.put(conversationId, conversation.head));
+      return new CompactionSnapshot(List.copyOf(segments), heads, structuralChanges);
+    }
+
+    // No shard lock: records behind the snapshot heads never change and only the compactor swaps segments.
+    private Compaction rewrite(CompactionSnapshot snapshot) throws IOException {
+      Path staging = sibling(".compacting");
+      deleteRecursively(staging);
+      Files.createDirectories(staging);
+      Shard fresh = new Shard(staging);
+      try {
+        snapshot.heads().forEach((conversationId, head) ->
+            fresh.copy(conversationId, chain(snapshot.segments(), head, NO_LOCATION)));
+        fresh.force();
+      } catch (RuntimeException exception) {
+        fresh.discard();
+        throw exception;
+      }
+      return new Compaction(fresh, snapshot.heads(), snapshot.structuralChanges());
+    }
+
+    private void discard() throws IOException {
+      segments.forEach(Segment::unmap);
+      deleteRecursively(dir);
+    }
+
+    private void finishCompaction(Compaction compaction) throws IOException {
+      Shard fresh = compaction.fresh();
+      if (compaction.structuralChanges() != structuralChanges) {
+        fresh.discard();
+        log.info("Deferred compaction of message shard {}: conversations changed while rewriting", dir.getFileName());
+        return;
+      }
+      for (Map.Entry<Long, ConversationLog> entry : conversations.entrySet()) {
+        Long snapshotHead = compaction.heads().get(entry.getKey());
+        long head = entry.getValue().head;
+        if (snapshotHead == null || snapshotHead != head) {
+          fresh.copy(entry.getKey(), chain(segments, head, snapshotHead == null ? NO_LOCATION : snapshotHead));
+        }
+      }
+      fresh.force();
+      Path retired = sibling(".old");
+      long before = totalBytes;
+      Files.move(dir, retired, StandardCopyOption.ATOMIC_MOVE);
+      Files.move(fresh.dir, dir, StandardCopyOption.ATOMIC_MOVE);
+      deleteRecursively(retired);
+      List<Segment> previous = segments;
+      segments = fresh.segments;
+      conversations = fresh.conversations;
+      liveBytes = fresh.liveBytes;
+      totalBytes = fresh.totalBytes;
+      previous.forEach(Segment::unmap);
+      log.info("Compacted message shard {} from {} to {} bytes", dir.getFileName(), before, totalBytes);
+    }
+
+    private void copy(Long conversationId, List<StoredRecord> records) {
+      ConversationLog rewritten = conversations.computeIfAbsent(conversationId, key -> new ConversationLog());
+      for (StoredRecord record : records) {
+        byte[] bytes = encode(RECORD_MESSAGE, record.id(), conversationId, record.senderId(), record.createdAt(),
+            rewritten.head, record.clientMessageId(), record.format(), record.body());
+        rewritten.add(record.id(), write(bytes), bytes.length, checkpointInterval);
+        liveBytes += bytes.length;
+      }
+    }
+
+    private void force() {
+      for (Segment segment : segments) {
+        segment.force();
+      }
+    }
+
+    private Path sibling(String suffix) {
+      return dir.resolveSibling(dir.getFileName() + suffix);
+    }
+  }
+
+  private record CompactionSnapshot(List<Segment> segments, Map<Long, Long> heads, long structuralChanges) {}
+
+  private record Compaction(Shard fresh, Map<Long, Long> heads, long structuralChanges) {}
+
+  private static Path segmentPath(Path dir, int index) {
+    return dir.resolve(String.format("%010d", index) + SEGMENT_SUFFIX);
+  }
+
+  private static StoredRecord readAt(Segment segment, int offset, boolean withBody, boolean verify) {
+    ByteBuffer buffer = segment.buffer;
+    if (offset + LENGTH_BYTES > buffer.capacity()) {
+      return null;
+    }
+    int length = buffer.getInt(offset);
+    if (length < FIXED_PAYLOAD_BYTES + CRC_BYTES || (long) offset + LENGTH_BYTES + length > buffer.capacity()) {
+      return null;
+    }
+    int payload = length - CRC_BYTES;
+    int start = offset + LENGTH_BYTES;
+    if (verify) {
+      CRC32 crc = new CRC32();
+      crc.update(buffer.slice(start, payload));
+      if ((int) crc.getValue() != buffer.getInt(start + payload)) {
+        return null;
+      }
+    }
+    ByteBuffer view = buffer.slice(start, payload);
+    byte type = view.get();
+    long id = view.getLong();
+    long conversationId = view.getLong();
+    long senderId = view.getLong();
+    Instant createdAt = Instant.ofEpochSecond(view.getLong(), view.getInt());
+    long previous = view.getLong();
+    short clientLength = view.getShort();
+    String clientMessageId = null;
+    if (clientLength >= 0) {
+      byte[] client = new byte[clientLength];
+      view.get(client);
+      clientMessageId = new String(client, StandardCharsets.UTF_8);
+    }
+    byte format = view.get();
+    int bodyLength = view.getInt();
+    byte[] body = null;
+    if (withBody) {
+      body = new byte[bodyLength];
+      view.get(body);
+    }
+    return new StoredRecord(type, id, conversationId, senderId, createdAt, previous, clientMessageId, format,
+        body, LENGTH_BYTES + length);
+  }
+
+  private static final class Segment {
+    private static final Object UNSAFE;
+    private static final Method INVOKE_CLEANER;
+
+    static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      try {
+        Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+        Field field = unsafeClass.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        unsafe = field.get(null);
+        invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      } catch (ReflectiveOperationException | RuntimeException exception) {
+        log.warn("Cannot unmap message segments; retired segments stay mapped until GC", exception);
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+    }
+
+    private final MappedByteBuffer buffer;
+    private int end;
+    private volatile boolean dirty;
+
+    private Segment(MappedByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    private static Segment open(Path path, int minimumBytes) throws IOException {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+          StandardOpenOption.WRITE)) {
+        long size = Math.max(channel.size(), minimumBytes);
+        return new Segment(channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+      }
+    }
+
+    private void zeroFrom(int offset) {
+      byte[] zeros = new byte[8192];
+      for (int position = offset; position < buffer.capacity(); position += zeros.length) {
+        buffer.put(position, zeros, 0, Math.min(zeros.length, buffer.capacity() - position));
+      }
+      dirty = true;
+    }
+
+    private void force() {
+      if (dirty) {
+        dirty = false;
+        buffer.force();
+      }
+    }
+
+    // Callers must hold the shard write lock and have dropped every reference to this segment.
+    private void unmap() {
+      if (INVOKE_CLEANER == null) {
+        return;
+      }
+      try {
+        INVOKE_CLEANER.invoke(UNSAFE, buffer);
+      } catch (ReflectiveOperationException exception) {
+        log.warn("Failed to unmap message segment", exception);
+      }
+    }
+  }
+
+  private static final class ConversationLog {
+    private long head = NO_LOCATION;
+    private long headId;
+    private long count;
+    private long bytes;
+    private long[] checkpointIds = new long[4];
+    private long[] checkpointSeqs = new long[4];
+    private long[] checkpointLocations = new long[4];
+    private int checkpoints;
+
+    private void add(long id, long location, int recordBytes, int interval) {
+      if (count % interval == 0) {
+        if (checkpoints == checkpointIds.length) {
+          checkpointIds = Arrays.copyOf(checkpointIds, checkpoints * 2);
+          checkpointSeqs = Arrays.copyOf(checkpointSeqs, checkpoints * 2);
+          checkpointLocations = Arrays.copyOf(checkpointLocations, checkpoints * 2);
+        }
+        checkpointIds[checkpoints] = id;
+        checkpointSeqs[checkpoints] = count;
+        checkpointLocations[checkpoints] = location;
+        checkpoints++;
+      }
+      head = location;
+      headId = id;
+      count++;
+      bytes += recordBytes;
+    }
+
+    private long locationAtOrAfterId(long id) {
+      int index = firstCheckpointWithIdAbove(id - 1);
+      return index < checkpoints ? checkpointLocations[index] : head;
+    }
+
+    private int firstCheckpointWithIdAbove(long id) {
+      int low = 0;
+      int high = checkpoints;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (checkpointIds[mid] > id) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+
+    private int firstCheckpointWithSeqAtLeast(long seq) {
+      int low = 0;
+      int high = checkpoints;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (checkpointSeqs[mid] >= seq) {
+          high = mid;
+        } else {
+          low = mid + 1;
+        }
+      }
+      return low;
+    }
+  }
+
+  private record StoredRecord(
+      byte type,
+      long id,
+      long conversationId,
+      long senderId,
+      Instant createdAt,
+      long previous,
+      String clientMessageId,
+      byte format,
+      byte[] body,
+      int size) {
+    private Message toMessage() {
+      Message message = new Message();
+      message.setId(id);
+      message.setConversationId(conversationId);
+      message.setSenderId(senderId);
+      message.setCreatedAt(createdAt);
+      message.setClientMessageId(clientMessageId);
+      message.setPayloadFormat(format);
+      if (format == MessagePayloads.FORMAT_TEXT) {
+        message.setText(body == null ? null : new String(body, StandardCharsets.UTF_8));
+      } else {
+        message.setText("");
+        message.setCiphertext(body);
+      }
+      return message;
+    }
+  }
+}
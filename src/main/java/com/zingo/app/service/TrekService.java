@@ -19,6 +19,7 @@ import com.zingo.app.exception.ForbiddenException;
 import com.zingo.app.exception.NotFoundException;
 import com.zingo.app.repository.EventRepository;
 import com.zingo.app.repository.ProfileRepository;
+import com.zingo.app.repository.ProfileSummary;
 import com.zingo.app.repository.ShowtimeRepository;
 import com.zingo.app.repository.TrekGroupRepository;
 import com.zingo.app.repository.TrekJoinRequestRepository;
@@ -40,6 +41,7 @@ public class TrekService {
   private final ShowtimeRepository showtimeRepository;
   private final EventRepository eventRepository;
   private final ProfileRepository profileRepository;
+  private final ProfileSummaryCache profileSummaryCache;
   private final NotificationService notificationService;
   private final SafetyService safetyService;
   private final ConversationService conversationService;
@@ -50,6 +52,7 @@ public class TrekService {
       ShowtimeRepository showtimeRepository,
       EventRepository eventRepository,
       ProfileRepository profileRepository,
+      ProfileSummaryCache profileSummaryCache,
       NotificationService notificationService,
       SafetyService safetyService,
       ConversationService conversationService) {
@@ -58,6 +61,7 @@ public class TrekService {
     this.showtimeRepository = showtimeRepository;
     this.eventRepository = eventRepository;
     this.profileRepository = profileRepository;
+    this.profileSummaryCache = profileSummaryCache;
     this.notificationService = notificationService;
     this.safetyService = safetyService;
     this.conversationService = conversationService;
@@ -84,7 +88,7 @@ public class TrekService {
     group.setConversationId(groupConversationId);
     TrekGroup saved = trekGroupRepository.save(group);
 
-    return toGroupDto(saved, hostProfile, 0);
+    return toGroupDto(saved, profileSummaryCache.get(hostUserId), 0);
   }
 
   public TrekHostStatusDto hostStatus() {
@@ -100,6 +104,7 @@ public class TrekService {
     if (!profile.isTrekHostEnabled()) {
       profile.setTrekHostEnabled(true);
       profileRepository.save(profile);
+      profileSummaryCache.invalidate(userId);
     }
     return new TrekHostStatusDto(true);
   }
@@ -159,7 +164,7 @@ public class TrekService {
     joinRequest.setNote(blankToNull(request != null ? request.note() : null));
     TrekJoinRequest saved = trekJoinRequestRepository.save(joinRequest);
 
-    Profile requester = profileRepository.findById(requesterUserId).orElse(null);
+    ProfileSummary requester = profileSummaryCache.get(requesterUserId);
     Showtime showtime = showtimeRepository.findById(group.getShowtimeId()).orElse(null);
     Event event = showtime != null ? eventRepository.findById(showtime.getEventId()).orElse(null) : null;
 
@@ -170,8 +175,8 @@ public class TrekService {
     payload.put("groupId", group.getId());
     payload.put("showtimeId", group.getShowtimeId());
     payload.put("fromUserId", requesterUserId);
-    payload.put("fromDisplayName", requester != null ? requester.getDisplayName() : "Someone");
-    payload.put("fromAvatarUrl", requester != null ? requester.getAvatarUrl() : null);
+    payload.put("fromDisplayName", requester != null ? requester.displayName() : "Someone");
+    payload.put("fromAvatarUrl", requester != null ? requester.avatarUrl() : null);
     payload.put("eventTitle", event != null ? event.getTitle() : "Trek");
     payload.put("startsAt", showtime != null && showtime.getStartsAt() != null ? showtime.getStartsAt().toString() : null);
     payload.put("note", saved.getNote());
@@ -209,7 +214,7 @@ public class TrekService {
         joinRequest.setReviewedAt(Instant.now());
         trekJoinRequestRepository.save(joinRequest);
       }
-      Profile requester = profileRepository.findById(existingApproved.getRequesterUserId()).orElse(null);
+      ProfileSummary requester = profileSummaryCache.get(existingApproved.getRequesterUserId());
       return new TrekDecisionResponse(toRequestDto(existingApproved, group, requester), conversationId);
     }
 
@@ -219,7 +224,7 @@ public class TrekService {
     joinRequest.setReviewedAt(Instant.now());
     TrekJoinRequest saved = trekJoinRequestRepository.save(joinRequest);
 
-    Profile host = profileRepository.findById(hostUserId).orElse(null);
+    ProfileSummary host = profileSummaryCache.get(hostUserId);
     Map<String, Object> payload = new HashMap<>();
     payload.put("type", "TREK_JOIN_APPROVED");
     payload.put("requestStatus", "APPROVED");
@@ -228,11 +233,11 @@ public class TrekService {
     payload.put("showtimeId", group.getShowtimeId());
     payload.put("conversationId", conversationId);
     payload.put("fromUserId", hostUserId);
-    payload.put("fromDisplayName", host != null ? host.getDisplayName() : "Trek host");
-    payload.put("fromAvatarUrl", host != null ? host.getAvatarUrl() : null);
+    payload.put("fromDisplayName", host != null ? host.displayName() : "Trek host");
+    payload.put("fromAvatarUrl", host != null ? host.avatarUrl() : null);
     notificationService.createAndSend(saved.getRequesterUserId(), NotificationType.SYSTEM, payload);
 
-    Profile requester = profileRepository.findById(saved.getRequesterUserId()).orElse(null);
+    ProfileSummary requester = profileSummaryCache.get(saved.getRequesterUserId());
     return new TrekDecisionResponse(toRequestDto(saved, group, requester), conversationId);
   }
 
@@ -249,7 +254,7 @@ public class TrekService {
     joinRequest.setReviewedAt(Instant.now());
     TrekJoinRequest saved = trekJoinRequestRepository.save(joinRequest);
 
-    Profile host = profileRepository.findById(hostUserId).orElse(null);
+    ProfileSummary host = profileSummaryCache.get(hostUserId);
     Map<String, Object> payload = new HashMap<>();
     payload.put("type", "TREK_JOIN_DECLINED");
     payload.put("requestStatus", "DECLINED");
@@ -257,11 +262,11 @@ public class TrekService {
     payload.put("groupId", group.getId());
     payload.put("showtimeId", group.getShowtimeId());
     payload.put("fromUserId", hostUserId);
-    payload.put("fromDisplayName", host != null ? host.getDisplayName() : "Trek host");
-    payload.put("fromAvatarUrl", host != null ? host.getAvatarUrl() : null);
+    payload.put("fromDisplayName", host != null ? host.displayName() : "Trek host");
+    payload.put("fromAvatarUrl", host != null ? host.avatarUrl() : null);
     notificationService.createAndSend(saved.getRequesterUserId(), NotificationType.SYSTEM, payload);
 
-    Profile requester = profileRepository.findById(saved.getRequesterUserId()).orElse(null);
+    ProfileSummary requester = profileSummaryCache.get(saved.getRequesterUserId());
     return toRequestDto(saved, group, requester);
   }
 
@@ -274,14 +279,11 @@ public class TrekService {
     for (TrekGroup group : groups) {
       hostIds.add(group.getHostUserId());
     }
-    Map<Long, Profile> profiles = new HashMap<>();
-    for (Profile profile : profileRepository.findAllById(hostIds)) {
-      profiles.put(profile.getUserId(), profile);
-    }
+    Map<Long, ProfileSummary> profiles = profileSummaryCache.getAll(hostIds);
 
     List<TrekGroupDto> dtos = new ArrayList<>(groups.size());
     for (TrekGroup group : groups) {
-      Profile hostProfile = profiles.get(group.getHostUserId());
+      ProfileSummary hostProfile = profiles.get(group.getHostUserId());
       long pending = trekJoinRequestRepository.countByGroupIdAndStatus(group.getId(), TrekJoinRequestStatus.PENDING);
       dtos.add(toGroupDto(group, hostProfile, pending));
     }
@@ -296,10 +298,7 @@ public class TrekService {
     for (TrekJoinRequest request : requests) {
       requesterIds.add(request.getRequesterUserId());
     }
-    Map<Long, Profile> profiles = new HashMap<>();
-    for (Profile profile : profileRepository.findAllById(requesterIds)) {
-      profiles.put(profile.getUserId(), profile);
-    }
+    Map<Long, ProfileSummary> profiles = profileSummaryCache.getAll(requesterIds);
 
     List<TrekJoinRequestDto> dtos = new ArrayList<>(requests.size());
     for (TrekJoinRequest request : requests) {
@@ -312,27 +311,27 @@ public class TrekService {
     return dtos;
   }
 
-  private TrekGroupDto toGroupDto(TrekGroup group, Profile hostProfile, long pending) {
+  private TrekGroupDto toGroupDto(TrekGroup group, ProfileSummary hostProfile, long pending) {
     return new TrekGroupDto(
         group.getId(),
         group.getShowtimeId(),
         group.getHostUserId(),
-        hostProfile != null ? hostProfile.getDisplayName() : "Trek host",
-        hostProfile != null ? hostProfile.getAvatarUrl() : null,
+        hostProfile != null ? hostProfile.displayName() : "Trek host",
+        hostProfile != null ? hostProfile.avatarUrl() : null,
         group.getDescription(),
         group.getMaxMembers(),
         pending,
         group.getCreatedAt());
   }
 
-  private TrekJoinRequestDto toRequestDto(TrekJoinRequest request, TrekGroup group, Profile requesterProfile) {
+  private TrekJoinRequestDto toRequestDto(TrekJoinRequest request, TrekGroup group, ProfileSummary requesterProfile) {
     return new TrekJoinRequestDto(
         request.getId(),
         request.getGroupId(),
         group.getShowtimeId(),
         request.getRequesterUserId(),
-        requesterProfile != null ? requesterProfile.getDisplayName() : "User",
-        requesterProfile != null ? requesterProfile.getAvatarUrl() : null,
+        requesterProfile != null ? requesterProfile.displayName() : "User",
+        requesterProfile != null ? requesterProfile.avatarUrl() : null,
         request.getNote(),
         request.getStatus(),
         request.getCreatedAt(),
@@ -1,7 +1,10 @@
 package com.zingo.app.websocket;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.util.ClassUtils;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
@@ -9,10 +12,32 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+  private static final String RELAY_MODE = "relay";
+  private static final String TCP_CLIENT_CLASS = "reactor.netty.tcp.TcpClient";
+
   private final JwtHandshakeHandler jwtHandshakeHandler;
+  private final String brokerMode;
+  private final String relayHost;
+  private final int relayPort;
+  private final String relayLogin;
+  private final String relayPasscode;
+  private final String relayVirtualHost;
 
-  public WebSocketConfig(JwtHandshakeHandler jwtHandshakeHandler) {
+  public WebSocketConfig(
+      JwtHandshakeHandler jwtHandshakeHandler,
+      @Value("${app.websocket.broker.mode:simple}") String brokerMode,
+      @Value("${app.websocket.broker.relayHost:localhost}") String relayHost,
+      @Value("${app.websocket.broker.relayPort:61613}") int relayPort,
+      @Value("${app.websocket.broker.login:guest}") String relayLogin,
+      @Value("${app.websocket.broker.passcode:guest}") String relayPasscode,
+      @Value("${app.websocket.broker.virtualHost:}") String relayVirtualHost) {
     this.jwtHandshakeHandler = jwtHandshakeHandler;
+    this.brokerMode = brokerMode == null ? "" : brokerMode.trim();
+    this.relayHost = relayHost;
+    this.relayPort = relayPort;
+    this.relayLogin = relayLogin;
+    this.relayPasscode = relayPasscode;
+    this.relayVirtualHost = relayVirtualHost;
   }
 
   @Override
@@ -26,7 +51,30 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
   @Override
   public void configureMessageBroker(MessageBrokerRegistry registry) {
     registry.setApplicationDestinationPrefixes("/app");
-    registry.enableSimpleBroker("/topic", "/queue");
+    if (RELAY_MODE.equalsIgnoreCase(brokerMode)) {
+      configureRelay(registry);
+    } else {
+      registry.enableSimpleBroker("/topic", "/queue");
+    }
     registry.setUserDestinationPrefix("/user");
   }
+
+  private void configureRelay(MessageBrokerRegistry registry) {
+    if (!ClassUtils.isPresent(TCP_CLIENT_CLASS, getClass().getClassLoader())) {
+      throw new IllegalStateException(
+          "app.websocket.broker.mode=relay requires reactor-netty on the classpath (build with -Pbroker-relay)");
+    }
+    StompBrokerRelayRegistration relay = registry.enableStompBrokerRelay("/topic", "/queue")
+        .setRelayHost(relayHost)
+        .setRelayPort(relayPort)
+        .setClientLogin(relayLogin)
+        .setClientPasscode(relayPasscode)
+        .setSystemLogin(relayLogin)
+        .setSystemPasscode(relayPasscode)
+        .setUserDestinationBroadcast("/topic/unresolved-user-destination")
+        .setUserRegistryBroadcast("/topic/simp-user-registry");
+    if (relayVirtualHost != null && !relayVirtualHost.isBlank()) {
+      relay.setVirtualHost(relayVirtualHost.trim());
+    }
+  }
 }
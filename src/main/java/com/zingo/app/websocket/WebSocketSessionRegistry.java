@@ -0,0 +1,42 @@
+package com.zingo.app.websocket;
+
+import org.springframework.messaging.simp.user.SimpSession;
+import org.springframework.messaging.simp.user.SimpUser;
+import org.springframework.messaging.simp.user.SimpUserRegistry;
+import org.springframework.stereotype.Component;
+
+// Reads subscriptions from the broker user registry, the same source presence uses. In relay mode that
+// registry is broadcast between nodes, so push suppression sees sessions on other nodes as well, lagging
+// by up to one registry broadcast.
+@Component
+public class WebSocketSessionRegistry {
+  public static final String NOTIFICATION_QUEUE = "/user/queue/notifications";
+
+  private final SimpUserRegistry simpUserRegistry;
+
+  public WebSocketSessionRegistry(SimpUserRegistry simpUserRegistry) {
+    this.simpUserRegistry = simpUserRegistry;
+  }
+
+  public boolean isSubscribed(Long userId, String destination) {
+    SimpUser user = userId != null ? simpUserRegistry.getUser(String.valueOf(userId)) : null;
+    if (user == null) {
+      return false;
+    }
+    for (SimpSession session : user.getSessions()) {
+      if (session.getSubscriptions().stream()
+          .anyMatch(subscription -> destination.equals(subscription.getDestination()))) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public boolean isViewingConversation(Long userId, Long conversationId) {
+    return isSubscribed(userId, "/topic/chat." + conversationId);
+  }
+
+  public boolean receivesNotifications(Long userId) {
+    return isSubscribed(userId, NOTIFICATION_QUEUE);
+  }
+}
@@ -0,0 +1 @@
+CREATE INDEX idx_message_conversation_created ON messages (conversation_id, created_at, id);
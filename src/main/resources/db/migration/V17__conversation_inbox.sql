@@ -0,0 +1,41 @@
+CREATE TABLE conversation_inbox (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  user_id BIGINT NOT NULL,
+  conversation_id BIGINT NOT NULL,
+  showtime_id BIGINT NOT NULL,
+  event_title VARCHAR(200) NULL,
+  event_poster_url VARCHAR(500) NULL,
+  venue_name VARCHAR(160) NULL,
+  starts_at TIMESTAMP NULL,
+  last_message_id BIGINT NULL,
+  last_message_sender_id BIGINT NULL,
+  last_message_preview VARCHAR(500) NULL,
+  last_message_at TIMESTAMP NULL,
+  unread_count INT NOT NULL DEFAULT 0,
+  last_activity_at TIMESTAMP NOT NULL,
+  UNIQUE KEY uniq_inbox_user_conversation (user_id, conversation_id),
+  INDEX idx_inbox_user_activity (user_id, last_activity_at, conversation_id),
+  INDEX idx_inbox_conversation (conversation_id)
+);
+
+INSERT INTO conversation_inbox (
+  user_id, conversation_id, showtime_id, event_title, event_poster_url, venue_name, starts_at,
+  last_message_id, last_message_sender_id, last_message_preview, last_message_at, unread_count, last_activity_at)
+SELECT cm.user_id, c.id, c.showtime_id, e.title, e.poster_url, v.name, s.starts_at,
+       lm.id, lm.sender_id,
+       CASE WHEN lm.text LIKE 'enc:v1:%' THEN 'Encrypted message' ELSE LEFT(lm.text, 500) END,
+       lm.created_at, 0, COALESCE(lm.created_at, c.created_at)
+FROM conversation_members cm
+JOIN conversations c ON c.id = cm.conversation_id
+LEFT JOIN showtimes s ON s.id = c.showtime_id
+LEFT JOIN events e ON e.id = s.event_id
+LEFT JOIN venues v ON v.id = s.venue_id
+LEFT JOIN (
+  SELECT ranked.id, ranked.conversation_id, ranked.sender_id, ranked.text, ranked.created_at
+  FROM (
+    SELECT m.id, m.conversation_id, m.sender_id, m.text, m.created_at,
+           row_number() OVER (PARTITION BY m.conversation_id ORDER BY m.created_at DESC, m.id DESC) AS rn
+    FROM messages m
+  ) ranked
+  WHERE ranked.rn = 1
+) lm ON lm.conversation_id = c.id;
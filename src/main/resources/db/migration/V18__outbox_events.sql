@@ -0,0 +1,11 @@
+CREATE TABLE outbox_events (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  event_type VARCHAR(40) NOT NULL,
+  payload_json JSON NOT NULL,
+  status VARCHAR(20) NOT NULL,
+  attempts INT NOT NULL DEFAULT 0,
+  available_at TIMESTAMP NOT NULL,
+  last_error VARCHAR(500) NULL,
+  created_at TIMESTAMP NOT NULL,
+  INDEX idx_outbox_due (status, available_at, id)
+);
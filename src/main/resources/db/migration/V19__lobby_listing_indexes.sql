@@ -0,0 +1,2 @@
+CREATE INDEX idx_lobby_showtime_seen ON lobby_presence (showtime_id, last_seen_at, user_id);
+CREATE INDEX idx_block_pair ON blocks (blocker_id, blocked_id);
@@ -0,0 +1,24 @@
+ALTER TABLE conversations
+  ADD COLUMN pair_key VARCHAR(41) NULL;
+
+UPDATE conversations c
+JOIN (
+  SELECT ranked.conversation_id, ranked.pair_key
+  FROM (
+    SELECT p.conversation_id,
+           p.pair_key,
+           ROW_NUMBER() OVER (PARTITION BY p.pair_key ORDER BY pc.created_at DESC, pc.id DESC) AS rn
+    FROM (
+      SELECT cm.conversation_id, CONCAT(MIN(cm.user_id), ':', MAX(cm.user_id)) AS pair_key
+      FROM conversation_members cm
+      GROUP BY cm.conversation_id
+      HAVING COUNT(*) = 2
+    ) p
+    JOIN conversations pc ON pc.id = p.conversation_id
+    WHERE NOT EXISTS (SELECT 1 FROM trek_groups tg WHERE tg.conversation_id = p.conversation_id)
+  ) ranked
+  WHERE ranked.rn = 1
+) keyed ON keyed.conversation_id = c.id
+SET c.pair_key = keyed.pair_key;
+
+CREATE UNIQUE INDEX uniq_conversation_pair_key ON conversations (pair_key);
@@ -0,0 +1,4 @@
+ALTER TABLE messages
+  ADD COLUMN client_message_id VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX uniq_message_sender_client ON messages (sender_id, client_message_id);
@@ -0,0 +1,2 @@
+ALTER TABLE conversation_members
+  ADD COLUMN last_read_message_id BIGINT NULL;
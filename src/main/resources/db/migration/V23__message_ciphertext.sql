@@ -0,0 +1,4 @@
+ALTER TABLE messages
+  ADD COLUMN payload_format TINYINT NOT NULL DEFAULT 0,
+  ADD COLUMN ciphertext VARBINARY(49152) NULL,
+  ALGORITHM = INSTANT;
@@ -0,0 +1,6 @@
+ALTER TABLE profiles
+  ADD COLUMN e2ee_key_fingerprint VARCHAR(64) NULL;
+
+UPDATE profiles
+SET e2ee_key_fingerprint = SHA2(e2ee_public_key, 256)
+WHERE e2ee_public_key IS NOT NULL AND TRIM(e2ee_public_key) <> '';
@@ -0,0 +1,15 @@
+CREATE INDEX idx_notification_user_created ON notifications (user_id, created_at, id);
+CREATE INDEX idx_notification_user_read ON notifications (user_id, read_at);
+DROP INDEX idx_notification_user ON notifications;
+
+CREATE TABLE notification_unread_counters (
+  user_id BIGINT PRIMARY KEY,
+  unread_count INT NOT NULL DEFAULT 0,
+  updated_at TIMESTAMP NOT NULL
+);
+
+INSERT INTO notification_unread_counters (user_id, unread_count, updated_at)
+SELECT user_id, COUNT(*), CURRENT_TIMESTAMP
+FROM notifications
+WHERE read_at IS NULL
+GROUP BY user_id;
@@ -0,0 +1,7 @@
+CREATE TABLE cache_invalidations (
+  id BIGINT PRIMARY KEY AUTO_INCREMENT,
+  scope VARCHAR(20) NOT NULL,
+  target_id BIGINT NULL,
+  created_at TIMESTAMP(6) NOT NULL,
+  INDEX idx_cache_invalidation_created (created_at)
+);
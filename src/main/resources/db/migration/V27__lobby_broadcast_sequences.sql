@@ -0,0 +1,4 @@
+CREATE TABLE lobby_broadcast_sequences (
+  showtime_id BIGINT PRIMARY KEY,
+  sequence BIGINT NOT NULL
+);
@@ -0,0 +1,4 @@
+DROP INDEX uniq_message_sender_client ON messages;
+
+CREATE UNIQUE INDEX uniq_message_conversation_sender_client
+  ON messages (conversation_id, sender_id, client_message_id);
@@ -0,0 +1,2 @@
+-- Lets the ciphertext backfill find unconverted rows directly; 7 covers the 'enc:v1:' prefix.
+CREATE INDEX idx_message_payload_backfill ON messages (payload_format, text(7));
@@ -0,0 +1,200 @@
+package com.zingo.app.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FakeFcmServer implements AutoCloseable {
+  public static final String PATH = "/fcm/send";
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final HttpServer server;
+  private final ExecutorService executor;
+  private final Set<String> notRegistered = ConcurrentHashMap.newKeySet();
+  private final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+  private final ConcurrentLinkedQueue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger requests = new AtomicInteger();
+  private volatile long latencyMillis;
+  private volatile long jitterMillis;
+  private volatile double serverErrorRate;
+  private volatile double unavailableRate;
+  private volatile double notRegisteredRate;
+
+  private FakeFcmServer(int threads) throws IOException {
+    this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+    AtomicInteger threadCount = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "fake-fcm-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.server.setExecutor(executor);
+    this.server.createContext(PATH, this::handle);
+    this.server.start();
+  }
+
+  public static FakeFcmServer start() throws IOException {
+    return start(32);
+  }
+
+  public static FakeFcmServer start(int threads) throws IOException {
+    return new FakeFcmServer(threads);
+  }
+
+  public String endpoint() {
+    return "http://127.0.0.1:" + server.getAddress().getPort() + PATH;
+  }
+
+  public FakeFcmServer latency(Duration latency, Duration jitter) {
+    this.latencyMillis = latency.toMillis();
+    this.jitterMillis = jitter.toMillis();
+    return this;
+  }
+
+  public FakeFcmServer serverErrorRate(double rate) {
+    this.serverErrorRate = rate;
+    return this;
+  }
+
+  public FakeFcmServer unavailableRate(double rate) {
+    this.unavailableRate = rate;
+    return this;
+  }
+
+  public FakeFcmServer notRegisteredRate(double rate) {
+    this.notRegisteredRate = rate;
+    return this;
+  }
+
+  public FakeFcmServer notRegistered(String... tokens) {
+    notRegistered.addAll(List.of(tokens));
+    return this;
+  }
+
+  public FakeFcmServer unavailable(String... tokens) {
+    unavailable.addAll(List.of(tokens));
+    return this;
+  }
+
+  public FakeFcmServer available(String... tokens) {
+    unavailable.removeAll(List.of(tokens));
+    return this;
+  }
+
+  public int requestCount() {
+    return requests.get();
+  }
+
+  public List<Delivery> deliveries() {
+    return new ArrayList<>(deliveries);
+  }
+
+  public int deliveryCount() {
+    return deliveries.size();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    try {
+      requests.incrementAndGet();
+      JsonNode request;
+      try (InputStream in = exchange.getRequestBody()) {
+        request = objectMapper.readTree(in);
+      }
+      sleepLatency();
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      if (random.nextDouble() < serverErrorRate) {
+        respond(exchange, 503, "Service Unavailable");
+        return;
+      }
+      List<String> tokens = new ArrayList<>();
+      if (request.hasNonNull("to")) {
+        tokens.add(request.get("to").asText());
+      }
+      request.path("registration_ids").forEach(token -> tokens.add(token.asText()));
+      Map<String, String> data = new LinkedHashMap<>();
+      request.path("data").fields().forEachRemaining(entry -> data.put(entry.getKey(), entry.getValue().asText()));
+
+      long receivedAt = System.nanoTime();
+      int success = 0;
+      int failure = 0;
+      List<Map<String, String>> results = new ArrayList<>();
+      for (String token : tokens) {
+        if (notRegistered.contains(token) || random.nextDouble() < notRegisteredRate) {
+          notRegistered.add(token);
+          results.add(Map.of("error", "NotRegistered"));
+          failure++;
+        } else if (unavailable.contains(token) || random.nextDouble() < unavailableRate) {
+          results.add(Map.of("error", "Unavailable"));
+          failure++;
+        } else {
+          deliveries.add(new Delivery(token, data, receivedAt));
+          results.add(Map.of("message_id", "0:" + receivedAt + "%" + success));
+          success++;
+        }
+      }
+      Map<String, Object> response = new LinkedHashMap<>();
+      response.put("multicast_id", receivedAt);
+      response.put("success", success);
+      response.put("failure", failure);
+      response.put("canonical_ids", 0);
+      response.put("results", results);
+      respond(exchange, 200, objectMapper.writeValueAsString(response));
+    } finally {
+      exchange.close();
+    }
+  }
+
+  private void sleepLatency() {
+    long delay = latencyMillis + (jitterMillis > 0 ? ThreadLocalRandom.current().nextLong(jitterMillis + 1) : 0);
+    if (delay <= 0) {
+      return;
+    }
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void respond(HttpExchange exchange, int status, String body) throws IOException {
+    byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+    exchange.getResponseHeaders().set("Content-Type", status == 200 ? "application/json" : "text/plain");
+    exchange.sendResponseHeaders(status, bytes.length);
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(bytes);
+    }
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException exception) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public record Delivery(String token, Map<String, String> data, long receivedAtNanos) {}
+}
@@ -0,0 +1,63 @@
+package com.zingo.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class FcmBatchResultTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void collectsInvalidAndCanonicalTokensByPosition() {
+    String body = """
+        {"multicast_id":1,"success":2,"failure":3,"canonical_ids":1,"results":[
+          {"message_id":"m1"},
+          {"error":"NotRegistered"},
+          {"message_id":"m3","registration_id":"t3-new"},
+          {"error":"InvalidRegistration"},
+          {"error":"Unavailable"}
+        ]}
+        """;
+
+    FcmBatchResult result = FcmBatchResult.parse(objectMapper, List.of("t1", "t2", "t3", "t4", "t5"), 200, body);
+
+    assertEquals(2, result.success());
+    assertEquals(3, result.failure());
+    assertEquals(List.of("t2", "t4"), result.invalidTokens());
+    assertEquals(List.of("t5"), result.unavailableTokens());
+    assertEquals(Map.of("t3", "t3-new"), result.canonicalTokens());
+    assertTrue(result.retryable());
+  }
+
+  @Test
+  void retriesWhenEveryTokenIsUnavailable() {
+    String body = "{\"results\":[{\"error\":\"Unavailable\"},{\"error\":\"InternalServerError\"}]}";
+
+    FcmBatchResult result = FcmBatchResult.parse(objectMapper, List.of("t1", "t2"), 200, body);
+
+    assertTrue(result.retryable());
+    assertTrue(result.invalidTokens().isEmpty());
+  }
+
+  @Test
+  void retriesOnThrottlingAndServerErrorsButNotOnClientErrors() {
+    assertTrue(FcmBatchResult.parse(objectMapper, List.of("t1"), 429, "").retryable());
+    assertEquals(List.of("t1", "t2"),
+        FcmBatchResult.parse(objectMapper, List.of("t1", "t2"), 503, "<html>").unavailableTokens());
+    assertFalse(FcmBatchResult.parse(objectMapper, List.of("t1"), 401, "Unauthorized").retryable());
+  }
+
+  @Test
+  void treatsUnparseableSuccessBodyAsDelivered() {
+    FcmBatchResult result = FcmBatchResult.parse(objectMapper, List.of("t1", "t2"), 200, "not json");
+
+    assertEquals(2, result.success());
+    assertFalse(result.retryable());
+    assertTrue(result.invalidTokens().isEmpty());
+  }
+}
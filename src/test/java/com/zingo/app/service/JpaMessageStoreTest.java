@@ -0,0 +1,27 @@
+package com.zingo.app.service;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@EnabledIfEnvironmentVariable(named = "ZINGO_TEST_DATABASE_URL", matches = ".+")
+@TestPropertySource(properties = {
+    "spring.datasource.url=${ZINGO_TEST_DATABASE_URL}",
+    "spring.datasource.username=${ZINGO_TEST_DATABASE_USERNAME:root}",
+    "spring.datasource.password=${ZINGO_TEST_DATABASE_PASSWORD:}"
+})
+@Import(JpaMessageStore.class)
+class JpaMessageStoreTest extends MessageStoreConformanceTest {
+  @Autowired
+  private JpaMessageStore store;
+
+  @Override
+  protected MessageStore store() {
+    return store;
+  }
+}
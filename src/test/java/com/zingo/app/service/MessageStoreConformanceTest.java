@@ -0,0 +1,205 @@
+package com.zingo.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zingo.app.entity.Message;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+abstract class MessageStoreConformanceTest {
+  private static final AtomicLong CONVERSATION_IDS = new AtomicLong(System.currentTimeMillis() * 10);
+  private static final Instant BASE_TIME = Instant.parse("2025-01-01T00:00:00Z");
+
+  private int sequence;
+
+  protected abstract MessageStore store();
+
+  protected MessageStore reopen() {
+    return store();
+  }
+
+  @Test
+  void appendAssignsIncreasingIds() {
+    long conversationId = newConversationId();
+    Message first = append(conversationId, 1L, "first", null);
+    Message second = append(conversationId, 2L, "second", null);
+
+    assertTrue(second.getId() > first.getId());
+    assertEquals("second", store().findLast(conversationId).orElseThrow().getText());
+  }
+
+  @Test
+  void latestAndBeforePageNewestFirst() {
+    long conversationId = newConversationId();
+    List<Long> ids = appendMany(conversationId, 300);
+
+    assertEquals(reversed(ids.subList(290, 300)), idsOf(store().findLatest(conversationId, 10)));
+    Message cursor = store().findById(conversationId, ids.get(150)).orElseThrow();
+    assertEquals(reversed(ids.subList(100, 150)), idsOf(store().findBefore(cursor, 50)));
+    Message oldest = store().findById(conversationId, ids.get(3)).orElseThrow();
+    assertEquals(reversed(ids.subList(0, 3)), idsOf(store().findBefore(oldest, 50)));
+  }
+
+  @Test
+  void afterAndSincePageOldestFirst() {
+    long conversationId = newConversationId();
+    List<Long> ids = appendMany(conversationId, 300);
+
+    Message cursor = store().findById(conversationId, ids.get(20)).orElseThrow();
+    assertEquals(ids.subList(21, 71), idsOf(store().findAfter(cursor, 50)));
+    assertEquals(ids.subList(21, 121), idsOf(store().findSince(conversationId, ids.get(20), 100)));
+    assertEquals(ids.subList(0, 5), idsOf(store().findSince(conversationId, 0L, 5)));
+    assertEquals(ids.subList(295, 300), idsOf(store().findSince(conversationId, ids.get(294), 100)));
+    assertTrue(store().findSince(conversationId, ids.get(299), 100).isEmpty());
+  }
+
+  @Test
+  void lookupsAreScopedToConversation() {
+    long conversationId = newConversationId();
+    long otherConversationId = newConversationId();
+    Message message = append(conversationId, 1L, "hello", "client-1");
+    append(otherConversationId, 1L, "elsewhere", null);
+
+    Message found = store().findById(conversationId, message.getId()).orElseThrow();
+    assertEquals("hello", found.getText());
+    assertEquals(1L, found.getSenderId());
+    assertEquals(conversationId, found.getConversationId());
+    assertEquals("client-1", found.getClientMessageId());
+    assertFalse(store().findById(otherConversationId, message.getId()).isPresent());
+    assertEquals(message.getId(),
+        store().findByClientMessageId(conversationId, 1L, "client-1").orElseThrow().getId());
+    assertFalse(store().findByClientMessageId(conversationId, 2L, "client-1").isPresent());
+  }
+
+  @Test
+  void clientMessageIdsAreScopedToConversation() {
+    long conversationId = newConversationId();
+    long otherConversationId = newConversationId();
+    Message first = append(conversationId, 1L, "first", "client-1");
+    Message second = append(otherConversationId, 1L, "second", "client-1");
+
+    assertEquals(first.getId(),
+        store().findByClientMessageId(conversationId, 1L, "client-1").orElseThrow().getId());
+    assertEquals(second.getId(),
+        store().findByClientMessageId(otherConversationId, 1L, "client-1").orElseThrow().getId());
+  }
+
+  @Test
+  void ciphertextRoundTripsToWireFormat() {
+    long conversationId = newConversationId();
+    byte[] payload = new byte[300];
+    for (int i = 0; i < payload.length; i++) {
+      payload[i] = (byte) (i * 31);
+    }
+    String wire = "enc:v1:" + Base64.getEncoder().encodeToString(payload);
+    Message message = message(conversationId, 1L, null, null);
+    MessagePayloads.write(message, wire);
+
+    Message stored = store().findById(conversationId, store().append(message).getId()).orElseThrow();
+
+    assertEquals(MessagePayloads.FORMAT_E2EE_V1, stored.getPayloadFormat());
+    assertEquals(wire, MessagePayloads.wireText(stored));
+    assertTrue(MessagePayloads.isEncrypted(stored));
+    assertEquals("plain", MessagePayloads.wireText(append(conversationId, 1L, "plain", null)));
+  }
+
+  @Test
+  void countBetweenExcludesSenderAndStopsAtLimit() {
+    long conversationId = newConversationId();
+    Message first = append(conversationId, 1L, "mine", null);
+    List<Message> theirs = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      theirs.add(append(conversationId, 2L, "theirs " + i, null));
+      append(conversationId, 1L, "mine " + i, null);
+    }
+
+    assertEquals(5, store().countBetween(conversationId, first.getId(), Long.MAX_VALUE, 1L, 100));
+    assertEquals(3, store().countBetween(conversationId, first.getId(), Long.MAX_VALUE, 1L, 3));
+    assertEquals(2, store().countBetween(conversationId, first.getId(), theirs.get(1).getId(), 1L, 100));
+    assertEquals(0, store().countBetween(newConversationId(), 0L, Long.MAX_VALUE, 1L, 100));
+  }
+
+  @Test
+  void moveConversationMergesHistory() {
+    long target = newConversationId();
+    long source = newConversationId();
+    List<Long> expected = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      expected.add(append(i % 3 == 0 ? source : target, 1L, "message " + i, null).getId());
+    }
+
+    store().moveConversation(source, target);
+
+    assertEquals(expected, idsOf(store().findSince(target, 0L, 100)));
+    assertTrue(store().findLatest(source, 10).isEmpty());
+  }
+
+  @Test
+  void deleteConversationRemovesHistory() {
+    long conversationId = newConversationId();
+    long keptConversationId = newConversationId();
+    appendMany(conversationId, 20);
+    Message kept = append(keptConversationId, 1L, "kept", null);
+
+    store().deleteConversation(conversationId);
+
+    assertTrue(store().findLatest(conversationId, 10).isEmpty());
+    assertFalse(store().findLast(conversationId).isPresent());
+    assertEquals(kept.getId(), store().findLast(keptConversationId).orElseThrow().getId());
+  }
+
+  @Test
+  void historySurvivesReopen() {
+    long conversationId = newConversationId();
+    List<Long> ids = appendMany(conversationId, 120);
+
+    MessageStore reopened = reopen();
+
+    assertEquals(ids, idsOf(reopened.findSince(conversationId, 0L, 200)));
+    Message next = reopened.append(message(conversationId, 1L, "after reopen", null));
+    assertTrue(next.getId() > ids.get(ids.size() - 1));
+  }
+
+  protected long newConversationId() {
+    return CONVERSATION_IDS.incrementAndGet();
+  }
+
+  protected Message append(long conversationId, long senderId, String text, String clientMessageId) {
+    return store().append(message(conversationId, senderId, text, clientMessageId));
+  }
+
+  protected List<Long> appendMany(long conversationId, int count) {
+    List<Long> ids = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      ids.add(append(conversationId, 1L + i % 2, "message " + i, null).getId());
+    }
+    return ids;
+  }
+
+  private Message message(long conversationId, long senderId, String text, String clientMessageId) {
+    Message message = new Message();
+    message.setConversationId(conversationId);
+    message.setSenderId(senderId);
+    message.setText(text);
+    message.setClientMessageId(clientMessageId);
+    message.setCreatedAt(BASE_TIME.plusSeconds(sequence++));
+    return message;
+  }
+
+  private static List<Long> reversed(List<Long> ids) {
+    List<Long> copy = new ArrayList<>(ids);
+    Collections.reverse(copy);
+    return copy;
+  }
+
+  private static List<Long> idsOf(List<Message> messages) {
+    return messages.stream().map(Message::getId).toList();
+  }
+}
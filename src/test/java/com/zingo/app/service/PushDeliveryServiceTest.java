@@ -0,0 +1,87 @@
+package com.zingo.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zingo.app.websocket.WebSocketSessionRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.messaging.DefaultSimpUserRegistry;
+
+class PushDeliveryServiceTest {
+  private FakeFcmServer fcm;
+  private DeadTokenPruner pruner;
+  private PushDeliveryService service;
+
+  @BeforeEach
+  void start() throws IOException {
+    fcm = FakeFcmServer.start();
+    pruner = new DeadTokenPruner(null);
+    service = new PushDeliveryService(new PushTokenService(null), pruner, new WebSocketSessionRegistry(new DefaultSimpUserRegistry()),
+        new ObjectMapper(), "test-key", fcm.endpoint(), 2, 8, 1000, 2000);
+  }
+
+  @AfterEach
+  void stop() {
+    service.shutdown();
+    fcm.close();
+  }
+
+  @Test
+  void reportsNotRegisteredTokensAndSkipsThemAfterwards() {
+    fcm.notRegistered("dead-1", "dead-2");
+
+    assertTrue(service.sendToTokens(List.of("live-1", "dead-1", "live-2", "dead-2"), "t", "b",
+        Map.of("notificationId", 7)).join().delivered());
+
+    assertTrue(pruner.isPending("dead-1"));
+    assertTrue(pruner.isPending("dead-2"));
+    assertFalse(pruner.isPending("live-1"));
+    assertEquals(2, fcm.deliveryCount());
+    assertEquals("7", fcm.deliveries().get(0).data().get("notificationId"));
+
+    assertTrue(service.sendToTokens(List.of("dead-1", "live-1"), "t", "b", Map.of()).join().delivered());
+    assertEquals(3, fcm.deliveryCount());
+    assertEquals(2, fcm.requestCount());
+  }
+
+  @Test
+  void splitsLargeMulticastsIntoConcurrentChunks() {
+    List<String> tokens = IntStream.range(0, 1200).mapToObj(i -> "token-" + i).toList();
+
+    assertTrue(service.sendToTokens(tokens, "t", "b", Map.of()).join().delivered());
+
+    assertEquals(3, fcm.requestCount());
+    assertEquals(1200, fcm.deliveryCount());
+  }
+
+  @Test
+  void reportsServerErrorsAsRetryable() {
+    fcm.serverErrorRate(1.0);
+
+    assertEquals(List.of("live-1", "live-2"),
+        service.sendToTokens(List.of("live-1", "live-2"), "t", "b", Map.of()).join().retryTokens());
+    assertFalse(pruner.isPending("live-1"));
+  }
+
+  @Test
+  void returnsOnlyUnavailableTokensForRetry() {
+    fcm.unavailable("flaky");
+
+    PushDeliveryService.PushResult first =
+        service.sendToTokens(List.of("live-1", "flaky", "live-2"), "t", "b", Map.of()).join();
+    assertEquals(List.of("flaky"), first.retryTokens());
+    assertEquals(2, fcm.deliveryCount());
+
+    fcm.available("flaky");
+    assertTrue(service.sendToTokens(first.retryTokens(), "t", "b", Map.of()).join().delivered());
+    assertEquals(3, fcm.deliveryCount());
+  }
+}
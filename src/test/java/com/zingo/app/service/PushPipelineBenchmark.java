@@ -0,0 +1,181 @@
+package com.zingo.app.service;
+
+import com.zingo.app.dto.NotificationDtos.NotificationDto;
+import com.zingo.app.entity.NotificationType;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+@SpringBootTest
+@EnabledIfEnvironmentVariable(named = "ZINGO_BENCHMARK_DATABASE_URL", matches = ".+")
+class PushPipelineBenchmark {
+  private static final Logger log = LoggerFactory.getLogger(PushPipelineBenchmark.class);
+  private static final int EVENTS_PER_SECOND = Integer.getInteger("bench.eventsPerSecond", 200);
+  private static final int DURATION_SECONDS = Integer.getInteger("bench.seconds", 30);
+  private static final int USERS = Integer.getInteger("bench.users", 1000);
+  private static final int PRODUCER_THREADS = Integer.getInteger("bench.producerThreads", 16);
+  private static final long BASE_USER_ID = Long.getLong("bench.baseUserId", 900_000_000L);
+  private static final FakeFcmServer FCM = startFcm();
+
+  @Autowired
+  private NotificationService notificationService;
+
+  @Autowired
+  private PushTokenService pushTokenService;
+
+  @Autowired
+  private PushDeliveryService pushDeliveryService;
+
+  @Autowired
+  private OutboxService outboxService;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @DynamicPropertySource
+  static void properties(DynamicPropertyRegistry registry) {
+    registry.add("spring.datasource.url", () -> System.getenv("ZINGO_BENCHMARK_DATABASE_URL"));
+    registry.add("spring.datasource.username", () -> envOr("ZINGO_BENCHMARK_DATABASE_USERNAME", "root"));
+    registry.add("spring.datasource.password", () -> envOr("ZINGO_BENCHMARK_DATABASE_PASSWORD", ""));
+    registry.add("scrape.enabled", () -> "false");
+    registry.add("app.push.fcmServerKey", () -> "benchmark");
+    registry.add("app.push.fcmEndpoint", FCM::endpoint);
+  }
+
+  @AfterAll
+  static void stopFcm() {
+    FCM.close();
+  }
+
+  @Test
+  void drivesNotificationsThroughThePushPipeline() throws InterruptedException {
+    String run = Long.toString(System.currentTimeMillis(), 36);
+    for (int i = 0; i < USERS; i++) {
+      pushTokenService.registerToken(BASE_USER_ID + i, "bench-" + run + "-" + i, "android");
+    }
+    try {
+      measure();
+    } finally {
+      cleanUp(run);
+    }
+  }
+
+  private void measure() throws InterruptedException {
+    int total = EVENTS_PER_SECOND * DURATION_SECONDS;
+    Map<String, Long> sentAt = new ConcurrentHashMap<>();
+    AtomicLong maxOutboxPending = new AtomicLong();
+    AtomicLong maxWaitingForPermit = new AtomicLong();
+    AtomicLong maxInFlight = new AtomicLong();
+    ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+    sampler.scheduleAtFixedRate(() -> {
+      maxOutboxPending.accumulateAndGet(outboxService.pendingCount(), Math::max);
+      maxWaitingForPermit.accumulateAndGet(pushDeliveryService.waitingForPermit(), Math::max);
+      maxInFlight.accumulateAndGet(pushDeliveryService.inFlightRequests(), Math::max);
+    }, 0, 100, TimeUnit.MILLISECONDS);
+
+    ExecutorService producers = Executors.newFixedThreadPool(PRODUCER_THREADS);
+    long intervalNanos = TimeUnit.SECONDS.toNanos(1) / EVENTS_PER_SECOND;
+    long start = System.nanoTime();
+    for (int i = 0; i < total; i++) {
+      LockSupport.parkNanos(start + i * intervalNanos - System.nanoTime());
+      long userId = BASE_USER_ID + (i % USERS);
+      producers.execute(() -> {
+        long before = System.nanoTime();
+        NotificationDto dto = notificationService.createAndSend(userId, NotificationType.SYSTEM, Map.of("type", "BENCH"));
+        sentAt.put(String.valueOf(dto.id()), before);
+      });
+    }
+    producers.shutdown();
+    producers.awaitTermination(1, TimeUnit.MINUTES);
+    double produceSeconds = (System.nanoTime() - start) / 1e9;
+
+    long deadline = System.nanoTime() + Duration.ofSeconds(60).toNanos();
+    while (FCM.deliveryCount() < total && System.nanoTime() < deadline) {
+      Thread.sleep(100);
+    }
+    double drainSeconds = (System.nanoTime() - start) / 1e9;
+    sampler.shutdownNow();
+
+    List<Long> latencies = new ArrayList<>();
+    for (FakeFcmServer.Delivery delivery : FCM.deliveries()) {
+      Long sent = sentAt.get(delivery.data().get("notificationId"));
+      if (sent != null) {
+        latencies.add(delivery.receivedAtNanos() - sent);
+      }
+    }
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+
+    log.info("push benchmark: target={}/s events={} produced in {}s, delivered={} in {}s ({} FCM requests)",
+        EVENTS_PER_SECOND, total, oneDecimal(produceSeconds), sorted.length, oneDecimal(drainSeconds),
+        FCM.requestCount());
+    log.info("delivery latency ms: p50={} p90={} p99={} max={}", oneDecimal(percentile(sorted, 0.50)),
+        oneDecimal(percentile(sorted, 0.90)), oneDecimal(percentile(sorted, 0.99)), oneDecimal(percentile(sorted, 1.0)));
+    log.info("max depth: outbox pending={} waiting for permit={} in-flight requests={}",
+        maxOutboxPending.get(), maxWaitingForPermit.get(), maxInFlight.get());
+  }
+
+  private void cleanUp(String run) {
+    long lastUserId = BASE_USER_ID + USERS - 1;
+    for (int i = 0; i < USERS; i++) {
+      pushTokenService.unregisterToken(BASE_USER_ID + i, "bench-" + run + "-" + i);
+    }
+    jdbcTemplate.update("DELETE FROM outbox_events WHERE event_type = 'PUSH' "
+        + "AND CAST(JSON_EXTRACT(payload_json, '$.userId') AS UNSIGNED) BETWEEN ? AND ?", BASE_USER_ID, lastUserId);
+    jdbcTemplate.update("DELETE FROM notifications WHERE user_id BETWEEN ? AND ?", BASE_USER_ID, lastUserId);
+    jdbcTemplate.update("DELETE FROM notification_unread_counters WHERE user_id BETWEEN ? AND ?",
+        BASE_USER_ID, lastUserId);
+  }
+
+  private static String oneDecimal(double value) {
+    return String.format("%.1f", value);
+  }
+
+  private static double percentile(long[] sorted, double quantile) {
+    if (sorted.length == 0) {
+      return Double.NaN;
+    }
+    int index = (int) Math.min(sorted.length - 1, Math.ceil(quantile * sorted.length) - 1);
+    return sorted[Math.max(0, index)] / 1e6;
+  }
+
+  private static FakeFcmServer startFcm() {
+    try {
+      return FakeFcmServer.start()
+          .latency(Duration.ofMillis(Long.getLong("bench.fcmLatencyMs", 40)),
+              Duration.ofMillis(Long.getLong("bench.fcmJitterMs", 20)))
+          .serverErrorRate(doubleProperty("bench.fcmErrorRate"))
+          .unavailableRate(doubleProperty("bench.fcmUnavailableRate"))
+          .notRegisteredRate(doubleProperty("bench.fcmNotRegisteredRate"));
+    } catch (IOException exception) {
+      throw new IllegalStateException(exception);
+    }
+  }
+
+  private static double doubleProperty(String name) {
+    return Double.parseDouble(System.getProperty(name, "0"));
+  }
+
+  private static String envOr(String name, String fallback) {
+    String value = System.getenv(name);
+    return value == null || value.isBlank() ? fallback : value;
+  }
+}
@@ -0,0 +1,157 @@
+package com.zingo.app.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.zingo.app.entity.Message;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SegmentFileMessageStoreTest extends MessageStoreConformanceTest {
+  private static final int SHARDS = 4;
+  private static final int SEGMENT_BYTES = 16 * 1024;
+
+  @TempDir
+  Path dir;
+
+  private SegmentFileMessageStore store;
+
+  @BeforeEach
+  void openStore() {
+    store = open();
+  }
+
+  @AfterEach
+  void closeStore() {
+    store.close();
+  }
+
+  @Override
+  protected MessageStore store() {
+    return store;
+  }
+
+  @Override
+  protected MessageStore reopen() {
+    store.close();
+    store = open();
+    return store;
+  }
+
+  @Test
+  void rollsSegmentsAndReadsAcrossThem() throws IOException {
+    long conversationId = newConversationId();
+    List<Long> ids = appendMany(conversationId, 1000);
+
+    assertTrue(segmentFiles().size() > 2);
+    assertEquals(ids.subList(500, 600), store.findSince(conversationId, ids.get(499), 100).stream()
+        .map(Message::getId).toList());
+  }
+
+  @Test
+  void compactionDropsDeletedConversations() throws IOException {
+    long deleted = newConversationId();
+    long kept = newConversationId();
+    appendMany(deleted, 400);
+    List<Long> keptIds = appendMany(kept, 50);
+    store.deleteConversation(deleted);
+    long before = segmentBytesOnDisk();
+
+    store.compact();
+
+    assertTrue(segmentBytesOnDisk() < before);
+    assertEquals(keptIds, store.findSince(kept, 0L, 100).stream().map(Message::getId).toList());
+    MessageStore reopened = reopen();
+    assertEquals(keptIds, reopened.findSince(kept, 0L, 100).stream().map(Message::getId).toList());
+    assertTrue(reopened.findLatest(deleted, 10).isEmpty());
+  }
+
+  @Test
+  void appendsAfterCompactionLandInTheLiveShard() throws IOException {
+    long deleted = newConversationId();
+    long kept = newConversationId();
+    while (Math.floorMod(kept, SHARDS) != Math.floorMod(deleted, SHARDS)) {
+      kept = newConversationId();
+    }
+    appendMany(deleted, 400);
+    List<Long> keptIds = new ArrayList<>(appendMany(kept, 50));
+    store.deleteConversation(deleted);
+
+    store.compact();
+    keptIds.addAll(appendMany(kept, 300));
+
+    assertEquals(keptIds, store.findSince(kept, 0L, 1000).stream().map(Message::getId).toList());
+    assertTrue(segmentFiles().stream().noneMatch(path -> path.toString().contains(".compacting")
+        || path.toString().contains(".old")));
+    assertEquals(keptIds, reopen().findSince(kept, 0L, 1000).stream().map(Message::getId).toList());
+  }
+
+  @Test
+  void tornTailIsIgnoredOnRecovery() throws IOException {
+    long conversationId = newConversationId();
+    List<Long> ids = appendMany(conversationId, 10);
+    store.close();
+    Path last = segmentFiles().get(segmentFiles().size() - 1);
+    long end = findEnd(last);
+    try (RandomAccessFile file = new RandomAccessFile(last.toFile(), "rw")) {
+      file.seek(end);
+      file.writeInt(200);
+      file.write(new byte[] {1, 2, 3, 4, 5, 6, 7});
+    }
+
+    store = open();
+
+    assertEquals(ids, store.findSince(conversationId, 0L, 100).stream().map(Message::getId).toList());
+    Message next = append(conversationId, 1L, "after recovery", null);
+    assertEquals(next.getId(), reopen().findLast(conversationId).orElseThrow().getId());
+  }
+
+  @Test
+  void rejectsMessagesLargerThanASegment() {
+    assertThrows(IllegalArgumentException.class,
+        () -> append(newConversationId(), 1L, "x".repeat(SEGMENT_BYTES), null));
+  }
+
+  private SegmentFileMessageStore open() {
+    return new SegmentFileMessageStore(dir.toString(), SHARDS, SEGMENT_BYTES, 8, 0.3, 600_000);
+  }
+
+  private List<Path> segmentFiles() throws IOException {
+    try (Stream<Path> files = Files.walk(dir)) {
+      return files.filter(path -> path.toString().endsWith(".seg")).sorted().toList();
+    }
+  }
+
+  private long segmentBytesOnDisk() throws IOException {
+    long total = 0;
+    for (Path path : segmentFiles()) {
+      total += findEnd(path);
+    }
+    return total;
+  }
+
+  private static long findEnd(Path segment) throws IOException {
+    try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "r")) {
+      long offset = 0;
+      while (offset + 4 <= file.length()) {
+        file.seek(offset);
+        int length = file.readInt();
+        if (length == 0) {
+          break;
+        }
+        offset += 4 + length;
+      }
+      return offset;
+    }
+  }
+}